@@ -0,0 +1,338 @@
+package io.github.foloke.dice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Dice expression compiled once and rolled many times. Supported syntax: sums of dice and constants like
+ * {@code 4d6kh3+2d8-1d4+5}, where {@code d%} is d100, {@code !} explodes the dice (max value rolls once more and
+ * adds), {@code khN}/{@code klN} keep N highest/lowest dice, and {@code N#} prefix repeats the whole expression.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotDiceExpression {
+	public static final int MAX_DICE_COUNT = 1000;
+	public static final int MAX_SIDES = 1_000_000;
+	public static final int MAX_TERMS = 20;
+	public static final int MAX_REPEATS = 20;
+	/**
+	 * Rolls of one exploding die, so d2! can't roll forever
+	 */
+	public static final int MAX_EXPLODING_ROLLS = 100;
+	private static final Pattern REPEATS_PATTERN = Pattern.compile("(\\d+)#");
+	private static final Pattern TERM_PATTERN = Pattern.compile(
+		"([+-])?(?:(\\d*)d(\\d+|%)(!)?(?:k([hl]?)(\\d+))?|(\\d+))"
+	);
+	private static final int PERCENTILE_SIDES = 100;
+	private final String source;
+	private final Term[] terms;
+	private final int repeats;
+	private final int maxDiceCount;
+
+	private BotDiceExpression(String source, Term[] terms, int repeats) {
+		this.source = source;
+		this.terms = terms;
+		this.repeats = repeats;
+		maxDiceCount = Arrays.stream(terms).mapToInt(term -> term.count).max().orElse(0);
+	}
+
+	/**
+	 * Compiles expression, spaces and case are ignored
+	 *
+	 * @throws DiceExpressionException if expression is invalid or exceeds the limits
+	 */
+	public static BotDiceExpression parse(String expression) {
+		String normalized = expression.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+		int position = 0;
+		int repeats = 1;
+		Matcher repeatsMatcher = REPEATS_PATTERN.matcher(normalized);
+		if (repeatsMatcher.lookingAt()) {
+			repeats = parseLimited(repeatsMatcher.group(1), 1, MAX_REPEATS, "repeats");
+			position = repeatsMatcher.end();
+		}
+		List<Term> terms = new ArrayList<>();
+		Matcher termMatcher = TERM_PATTERN.matcher(normalized);
+		while (position < normalized.length()) {
+			termMatcher.region(position, normalized.length());
+			if (!termMatcher.lookingAt() || (!terms.isEmpty() && termMatcher.group(1) == null)) {
+				throw new DiceExpressionException(String.format("Unexpected \"%s\"", normalized.substring(position)));
+			}
+			terms.add(createTerm(termMatcher));
+			if (terms.size() > MAX_TERMS) {
+				throw new DiceExpressionException(String.format("More than %d terms", MAX_TERMS));
+			}
+			position = termMatcher.end();
+		}
+		if (terms.isEmpty()) {
+			throw new DiceExpressionException("Empty expression");
+		}
+		return new BotDiceExpression(normalized, terms.toArray(new Term[0]), repeats);
+	}
+
+	private static Term createTerm(Matcher termMatcher) {
+		int sign = "-".equals(termMatcher.group(1)) ? -1 : 1;
+		if (termMatcher.group(7) != null) {
+			return new Term(sign, parseLimited(termMatcher.group(7), 0, Integer.MAX_VALUE / 2, "constant"));
+		}
+		int count = termMatcher.group(2).isEmpty() ? 1 : parseLimited(termMatcher.group(2), 1, MAX_DICE_COUNT, "dice");
+		int sides = "%".equals(termMatcher.group(3))
+			? PERCENTILE_SIDES
+			: parseLimited(termMatcher.group(3), 1, MAX_SIDES, "sides");
+		boolean explode = termMatcher.group(4) != null;
+		if (explode && sides == 1) {
+			throw new DiceExpressionException("d1 can't explode");
+		}
+		int keep = termMatcher.group(6) == null ? count : parseLimited(termMatcher.group(6), 1, count, "kept dice");
+		boolean keepLowest = "l".equals(termMatcher.group(5));
+		return new Term(sign, count, sides, explode, keep, keepLowest);
+	}
+
+	private static int parseLimited(String value, int min, int max, String name) {
+		try {
+			int parsed = Integer.parseInt(value);
+			if (parsed >= min && parsed <= max) {
+				return parsed;
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new DiceExpressionException(String.format("%s must be from %d to %d", name, min, max));
+	}
+
+	/**
+	 * Times the expression is rolled per command
+	 */
+	public int getRepeats() {
+		return repeats;
+	}
+
+	/**
+	 * Lowest total if every exploding die is rolled at most the passed times
+	 */
+	public long getMin(int rollsPerDie) {
+		return Arrays.stream(terms)
+			.mapToLong(term -> term.sign > 0 ? term.getMin() : -term.getMax(rollsPerDie))
+			.sum();
+	}
+
+	/**
+	 * Highest total if every exploding die is rolled at most the passed times
+	 */
+	public long getMax(int rollsPerDie) {
+		return Arrays.stream(terms)
+			.mapToLong(term -> term.sign > 0 ? term.getMax(rollsPerDie) : -term.getMin())
+			.sum();
+	}
+
+	/**
+	 * Dice rolled per one roll of the expression (explosions are not counted)
+	 */
+	public int getDiceCount() {
+		return Arrays.stream(terms).mapToInt(term -> term.count).sum();
+	}
+
+	/**
+	 * Does any added dice explode, totals are unbounded above
+	 */
+	public boolean isExplodingUp() {
+		return Arrays.stream(terms).anyMatch(term -> term.explode && term.sign > 0);
+	}
+
+	/**
+	 * Does any subtracted dice explode, totals are unbounded below
+	 */
+	public boolean isExplodingDown() {
+		return Arrays.stream(terms).anyMatch(term -> term.explode && term.sign < 0);
+	}
+
+	/**
+	 * Roller for one thread, rolls don't allocate
+	 */
+	public Roller newRoller() {
+		return new Roller();
+	}
+
+	/**
+	 * Rolls once keeping every die value for the reply
+	 */
+	public DetailedRoll rollDetailed(SplittableRandom random) {
+		List<String> termDescriptions = new ArrayList<>();
+		long total = 0;
+		for (Term term : terms) {
+			if (term.isConstant()) {
+				total += (long) term.sign * term.constant;
+				termDescriptions.add((term.sign < 0 ? "-" : "+") + term.constant);
+				continue;
+			}
+			int[] values = IntStream.range(0, term.count).map(index -> term.rollDie(random)).toArray();
+			boolean[] kept = term.getKept(values);
+			long termTotal = IntStream.range(0, values.length)
+				.filter(index -> kept[index])
+				.mapToLong(index -> values[index])
+				.sum();
+			total += term.sign * termTotal;
+			termDescriptions.add(String.format(
+				"%s%s [%s] = %d",
+				term.sign < 0 ? "-" : "+",
+				term,
+				IntStream.range(0, values.length)
+					.mapToObj(index -> kept[index] ? Integer.toString(values[index]) : "~~" + values[index] + "~~")
+					.collect(Collectors.joining(", ")),
+				termTotal
+			));
+		}
+		return new DetailedRoll(termDescriptions, total);
+	}
+
+	@Override
+	public String toString() {
+		return source;
+	}
+
+	/**
+	 * Rolls expression reusing one buffer, not thread safe
+	 */
+	public final class Roller {
+		private final int[] scratch = new int[maxDiceCount];
+
+		private Roller() {
+		}
+
+		public long roll(SplittableRandom random) {
+			long total = 0;
+			for (Term term : terms) {
+				total += term.sign * term.roll(random, scratch);
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * One roll with described terms
+	 */
+	public static final class DetailedRoll {
+		private final List<String> termDescriptions;
+		private final long total;
+
+		private DetailedRoll(List<String> termDescriptions, long total) {
+			this.termDescriptions = termDescriptions;
+			this.total = total;
+		}
+
+		public List<String> getTermDescriptions() {
+			return new ArrayList<>(termDescriptions);
+		}
+
+		public long getTotal() {
+			return total;
+		}
+	}
+
+	private static final class Term {
+		private final int sign;
+		private final int count;
+		private final int sides;
+		private final boolean explode;
+		private final int keep;
+		private final boolean keepLowest;
+		private final int constant;
+
+		private Term(int sign, int constant) {
+			this(sign, 0, 0, false, 0, false, constant);
+		}
+
+		private Term(int sign, int count, int sides, boolean explode, int keep, boolean keepLowest) {
+			this(sign, count, sides, explode, keep, keepLowest, 0);
+		}
+
+		private Term(int sign, int count, int sides, boolean explode, int keep, boolean keepLowest, int constant) {
+			this.sign = sign;
+			this.count = count;
+			this.sides = sides;
+			this.explode = explode;
+			this.keep = keep;
+			this.keepLowest = keepLowest;
+			this.constant = constant;
+		}
+
+		private boolean isConstant() {
+			return count == 0;
+		}
+
+		private long getMin() {
+			return isConstant() ? constant : keep;
+		}
+
+		private long getMax(int rollsPerDie) {
+			if (isConstant()) {
+				return constant;
+			}
+			return (long) keep * sides * (explode ? Math.min(rollsPerDie, MAX_EXPLODING_ROLLS) : 1);
+		}
+
+		private int rollDie(SplittableRandom random) {
+			int total = 0;
+			int rolls = 1;
+			int value;
+			do {
+				value = 1 + random.nextInt(sides);
+				total += value;
+			} while (explode && value == sides && rolls++ < MAX_EXPLODING_ROLLS);
+			return total;
+		}
+
+		/**
+		 * Sum of kept dice, scratch is sorted in place when only part of the dice is kept
+		 */
+		private long roll(SplittableRandom random, int[] scratch) {
+			if (isConstant()) {
+				return constant;
+			}
+			long total = 0;
+			if (keep == count) {
+				for (int i = 0; i < count; i++) {
+					total += rollDie(random);
+				}
+				return total;
+			}
+			for (int i = 0; i < count; i++) {
+				scratch[i] = rollDie(random);
+			}
+			Arrays.sort(scratch, 0, count);
+			int from = keepLowest ? 0 : count - keep;
+			for (int i = from; i < from + keep; i++) {
+				total += scratch[i];
+			}
+			return total;
+		}
+
+		private boolean[] getKept(int[] values) {
+			boolean[] kept = new boolean[values.length];
+			Comparator<Integer> byValue = Comparator.comparingInt(index -> values[index]);
+			IntStream.range(0, values.length)
+				.boxed()
+				.sorted(keepLowest ? byValue : byValue.reversed())
+				.limit(keep)
+				.forEach(index -> kept[index] = true);
+			return kept;
+		}
+
+		@Override
+		public String toString() {
+			if (isConstant()) {
+				return Integer.toString(constant);
+			}
+			String keepSuffix = keep == count ? "" : (keepLowest ? "kl" : "kh") + keep;
+			return count + "d" + sides + (explode ? "!" : "") + keepSuffix;
+		}
+	}
+}
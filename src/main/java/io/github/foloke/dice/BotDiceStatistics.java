@@ -0,0 +1,218 @@
+package io.github.foloke.dice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Distribution of expression totals collected by rolling it many times. Rolls are split between workers of the common
+ * pool, every worker has own random generator, roller and histogram, so nothing is shared until the merge.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotDiceStatistics {
+	/**
+	 * Exploding dice are counted in the histogram up to this rolls per die, bigger totals go to the last bucket (and
+	 * smaller ones of the subtracted dice to the first)
+	 */
+	private static final int HISTOGRAM_ROLLS_PER_DIE = 3;
+	private static final int MAX_BUCKETS = 1 << 16;
+	private final long min;
+	private final long bucketWidth;
+	private final long[] histogram;
+	private final boolean explodingUp;
+	private final boolean explodingDown;
+	private final long rolls;
+	private final double mean;
+	private final double standardDeviation;
+	private final long elapsedMillis;
+
+	private BotDiceStatistics(
+		long min,
+		long bucketWidth,
+		long[] histogram,
+		boolean explodingUp,
+		boolean explodingDown,
+		long rolls,
+		double mean,
+		double standardDeviation,
+		long elapsedMillis
+	) {
+		this.min = min;
+		this.bucketWidth = bucketWidth;
+		this.histogram = histogram;
+		this.explodingUp = explodingUp;
+		this.explodingDown = explodingDown;
+		this.rolls = rolls;
+		this.mean = mean;
+		this.standardDeviation = standardDeviation;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Rolls expression the passed times in parallel
+	 */
+	public static BotDiceStatistics collect(BotDiceExpression expression, int rolls, SplittableRandom random) {
+		long startNanos = System.nanoTime();
+		long min = expression.getMin(HISTOGRAM_ROLLS_PER_DIE);
+		long max = expression.getMax(HISTOGRAM_ROLLS_PER_DIE);
+		long bucketWidth = Math.max(1, (max - min) / MAX_BUCKETS + 1);
+		int bucketsCount = (int) ((max - min) / bucketWidth + 1);
+		int workersCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), rolls / 10_000));
+		SplittableRandom[] workerRandoms = new SplittableRandom[workersCount];
+		for (int i = 0; i < workersCount; i++) {
+			workerRandoms[i] = random.split();
+		}
+		Worker[] workers = IntStream.range(0, workersCount)
+			.parallel()
+			.mapToObj(index -> {
+				Worker worker = new Worker(bucketsCount);
+				int workerRolls = rolls / workersCount + (index < rolls % workersCount ? 1 : 0);
+				worker.roll(expression, workerRandoms[index], workerRolls, min, bucketWidth);
+				return worker;
+			})
+			.toArray(Worker[]::new);
+		long[] histogram = new long[bucketsCount];
+		double sum = 0;
+		double squaresSum = 0;
+		for (Worker worker : workers) {
+			for (int i = 0; i < bucketsCount; i++) {
+				histogram[i] += worker.histogram[i];
+			}
+			sum += worker.sum;
+			squaresSum += worker.squaresSum;
+		}
+		double mean = sum / rolls;
+		double standardDeviation = Math.sqrt(Math.max(0, squaresSum / rolls - mean * mean));
+		long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+		return new BotDiceStatistics(
+			min,
+			bucketWidth,
+			histogram,
+			expression.isExplodingUp(),
+			expression.isExplodingDown(),
+			rolls,
+			mean,
+			standardDeviation,
+			elapsedMillis
+		);
+	}
+
+	/**
+	 * Histogram merged into at most the passed rows, empty rows at the edges are skipped
+	 */
+	public List<Row> getRows(int maxRows) {
+		int first = 0;
+		int last = histogram.length - 1;
+		while (first < last && histogram[first] == 0) {
+			first++;
+		}
+		while (last > first && histogram[last] == 0) {
+			last--;
+		}
+		int bucketsPerRow = (last - first) / maxRows + 1;
+		List<Row> rows = new ArrayList<>();
+		for (int from = first; from <= last; from += bucketsPerRow) {
+			int to = Math.min(last, from + bucketsPerRow - 1);
+			long count = 0;
+			for (int i = from; i <= to; i++) {
+				count += histogram[i];
+			}
+			boolean overflow = explodingUp && to == histogram.length - 1;
+			boolean underflow = explodingDown && from == 0;
+			long toTotal = min + (to + 1) * bucketWidth - 1;
+			rows.add(new Row(min + from * bucketWidth, toTotal, (double) count / rolls, overflow, underflow));
+		}
+		return rows;
+	}
+
+	public long getRolls() {
+		return rolls;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public double getStandardDeviation() {
+		return standardDeviation;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * Totals range with its share of rolls
+	 */
+	public static final class Row {
+		private final long from;
+		private final long to;
+		private final double share;
+		private final boolean overflow;
+		private final boolean underflow;
+
+		private Row(long from, long to, double share, boolean overflow, boolean underflow) {
+			this.from = from;
+			this.to = to;
+			this.share = share;
+			this.overflow = overflow;
+			this.underflow = underflow;
+		}
+
+		public long getFrom() {
+			return from;
+		}
+
+		public long getTo() {
+			return to;
+		}
+
+		public double getShare() {
+			return share;
+		}
+
+		/**
+		 * Row includes totals bigger than {@link #getTo()} (exploding dice)
+		 */
+		public boolean isOverflow() {
+			return overflow;
+		}
+
+		/**
+		 * Row includes totals smaller than {@link #getFrom()} (exploding subtracted dice)
+		 */
+		public boolean isUnderflow() {
+			return underflow;
+		}
+	}
+
+	private static final class Worker {
+		private final long[] histogram;
+		private double sum;
+		private double squaresSum;
+
+		private Worker(int bucketsCount) {
+			histogram = new long[bucketsCount];
+		}
+
+		private void roll(
+			BotDiceExpression expression,
+			SplittableRandom random,
+			int rolls,
+			long min,
+			long bucketWidth
+		) {
+			BotDiceExpression.Roller roller = expression.newRoller();
+			int lastBucket = histogram.length - 1;
+			for (int i = 0; i < rolls; i++) {
+				long total = roller.roll(random);
+				sum += total;
+				squaresSum += (double) total * total;
+				histogram[(int) Math.max(0, Math.min(lastBucket, (total - min) / bucketWidth))]++;
+			}
+		}
+	}
+}
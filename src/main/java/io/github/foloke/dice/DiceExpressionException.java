@@ -0,0 +1,16 @@
+package io.github.foloke.dice;
+
+/**
+ * Dice expression can't be parsed or exceeds the limits
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public class DiceExpressionException extends RuntimeException {
+	/**
+	 * Create exception with message text
+	 */
+	public DiceExpressionException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,87 @@
+package io.github.foloke.player;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Journals in a directory. Nodes sharing the directory (local JVMs or a network mount with file locks) take guild
+ * state over with no copying. Journal is owned by the node holding the lock of its lock file (the journal itself is
+ * replaced on compaction, so it can't hold the lock), a node with a stale ring can't write a journal of another node.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public class BotFilePlayerStateStore implements BotPlayerStateStore {
+	private static final String JOURNAL_EXTENSION = ".journal";
+	private static final String LOCK_EXTENSION = ".lock";
+	private final Logger log = LoggerFactory.getLogger(BotFilePlayerStateStore.class);
+	private final String journalPath;
+	private final Map<String, FileLock> guildIdToLock = new ConcurrentHashMap<>();
+
+	/**
+	 * @param journalPath journals directory, empty to disable persistence
+	 */
+	public BotFilePlayerStateStore(String journalPath) {
+		this.journalPath = journalPath;
+	}
+
+	@Override
+	public Optional<Path> acquire(String guildId) {
+		if (journalPath.isEmpty()) {
+			return Optional.empty();
+		}
+		Path guildJournalPath = Paths.get(journalPath, guildId + JOURNAL_EXTENSION);
+		Path lockPath = Paths.get(journalPath, guildId + JOURNAL_EXTENSION + LOCK_EXTENSION);
+		FileChannel lockChannel = null;
+		FileLock lock;
+		try {
+			Files.createDirectories(lockPath.toAbsolutePath().getParent());
+			lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			lock = lockChannel.tryLock();
+		} catch (IOException | OverlappingFileLockException e) {
+			closeQuietly(lockChannel);
+			throw new IllegalStateException(String.format("Guild %s journal can't be locked", guildId), e);
+		}
+		if (lock == null) {
+			closeQuietly(lockChannel);
+			throw new IllegalStateException(String.format("Guild %s journal is owned by another node", guildId));
+		}
+		guildIdToLock.put(guildId, lock);
+		return Optional.of(guildJournalPath);
+	}
+
+	@Override
+	public void release(String guildId) {
+		FileLock lock = guildIdToLock.remove(guildId);
+		if (lock != null) {
+			try {
+				lock.release();
+			} catch (IOException e) {
+				log.warn(String.format("Guild %s journal lock is not released", guildId), e);
+			}
+			closeQuietly(lock.channel());
+		}
+	}
+
+	private void closeQuietly(FileChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				log.warn("Journal lock file is not closed", e);
+			}
+		}
+	}
+}
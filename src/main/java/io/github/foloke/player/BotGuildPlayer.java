@@ -2,22 +2,29 @@ package io.github.foloke.player;
 
 import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
-import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
-import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
-import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventListener;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
-import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
 import discord4j.core.object.entity.Message;
 import discord4j.voice.AudioProvider;
+import io.github.foloke.spring.metrics.BotPlayerMetrics;
+import io.github.foloke.spring.metrics.jfr.BotAudioUnderrunEvent;
 import io.github.foloke.spring.services.localization.BotLocalization;
+import jdk.jfr.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -33,10 +40,13 @@ public final class BotGuildPlayer extends AudioProvider {
 	private static final float VOLUME_STEP = MAX_VOLUME / 20;
 	public static final int REWIND_DELAY = 3000;
 	private static final int VOLUME_LERP_DELAY = 50;
+	private static final String LINK_ERROR_FORMAT = "%s: ";
+	private static final EventType UNDERRUN_EVENT_TYPE = EventType.getEventType(BotAudioUnderrunEvent.class);
 	private final String guildId;
 	private final AudioPlayer audioPlayer;
-	private final AudioPlayerManager playerManager;
+	private final BotTrackLoader trackLoader;
 	private final BotQueue botQueue;
+	private final Optional<BotQueueJournal> journal;
 	private final BotGuildPlayerUpdater botGuildPlayerUpdater;
 	private final MutableAudioFrame frame = new MutableAudioFrame();
 	private float volume = DEFAULT_VOLUME;
@@ -59,48 +69,213 @@ public final class BotGuildPlayer extends AudioProvider {
 	private BotRepeatState botRepeatState = BotRepeatState.NONE;
 	private final String motd;
 	private final BotLocalization playerLocalization;
+	private final BotPlayerMetrics playerMetrics;
 
 	/**
-	 * Creates a player instance associated with a guild.
+	 * Creates a player instance associated with a guild. Player is created by shared manager of the track loader.
+	 * If journal path is specified, queue is restored from the journal (no tracks are loaded) and all further queue
+	 * changes are written to it.
 	 **/
-	public BotGuildPlayer(String guildId, String motd, BotLocalization playerLocalization) {
+	public BotGuildPlayer(
+		String guildId,
+		String motd,
+		BotLocalization playerLocalization,
+		BotTrackLoader trackLoader,
+		BotPlayerMetrics playerMetrics,
+		Optional<Path> journalPath
+	) {
 		super(ByteBuffer.allocate(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize()));
 		this.guildId = guildId;
-		playerManager = new DefaultAudioPlayerManager();
-		AudioSourceManagers.registerRemoteSources(playerManager);
-		playerManager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
-		audioPlayer = playerManager.createPlayer();
-		botQueue = new BotQueue(audioPlayer, this);
+		this.trackLoader = trackLoader;
+		audioPlayer = trackLoader.getPlayerManager().createPlayer();
+		journal = journalPath.flatMap(this::openJournal);
+		botQueue = new BotQueue(audioPlayer, this, journal);
+		journal.ifPresent(this::restore);
 		audioPlayer.addListener(botQueue);
 		audioPlayer.setVolume((int) volume);
 		this.playerLocalization = playerLocalization;
-		botGuildPlayerUpdater = new BotGuildPlayerUpdater(this, playerLocalization);
+		this.playerMetrics = playerMetrics;
+		botGuildPlayerUpdater = new BotGuildPlayerUpdater(this, playerLocalization, playerMetrics);
 		botGuildPlayerUpdater.start();
 		frame.setBuffer(getBuffer());
 		this.motd = motd;
 	}
 
+	private Optional<BotQueueJournal> openJournal(Path path) {
+		try {
+			return Optional.of(BotQueueJournal.open(path, trackLoader));
+		} catch (IOException e) {
+			logger.error(String.format("Queue journal open error, queue is not persisted: %s", path), e);
+			return Optional.empty();
+		}
+	}
+
+	private void restore(BotQueueJournal queueJournal) {
+		botQueue.restore(queueJournal.restore());
+		volume = queueJournal.getVolume();
+		botRepeatState = queueJournal.getBotRepeatState();
+	}
+
+	/**
+	 * Closes queue journal, player can't be used after
+	 */
+	public void close() {
+		journal.ifPresent(queueJournal -> {
+			try {
+				queueJournal.close();
+			} catch (IOException e) {
+				logger.error(String.format("Queue journal close error for guild %s", guildId), e);
+			}
+		});
+	}
+
 	@Override
 	public boolean provide() {
 		boolean didProvide = audioPlayer.provide(frame);
 		if (didProvide) {
 			getBuffer().flip();
+		} else {
+			recordUnderrun();
 		}
 		return didProvide;
 	}
 
 	/**
-	 * Add track or playlist to queue by link
+	 * Missed frame is an underrun only while the track plays, event is allocated only if recording is enabled
+	 */
+	private void recordUnderrun() {
+		AudioTrack playingTrack = audioPlayer.getPlayingTrack();
+		if (playingTrack == null || audioPlayer.isPaused()) {
+			return;
+		}
+		playerMetrics.recordUnderrun();
+		if (!UNDERRUN_EVENT_TYPE.isEnabled()) {
+			return;
+		}
+		BotAudioUnderrunEvent underrunEvent = new BotAudioUnderrunEvent();
+		if (underrunEvent.shouldCommit()) {
+			underrunEvent.guildId = guildId;
+			underrunEvent.positionMillis = playingTrack.getPosition();
+			underrunEvent.commit();
+		}
+	}
+
+	/**
+	 * Add track or playlist to queue by link (resolved once and cached by the track loader)
 	 */
 	public void addToQueue(String link) throws AddToQueueException {
-		BotQueueAudioLoader botQueueAudioLoader = new BotQueueAudioLoader(botQueue, playerLocalization);
-		playerManager.loadItemSync(link, botQueueAudioLoader);
+		BotQueueAudioLoader botQueueAudioLoader = new BotQueueAudioLoader(
+			botQueue,
+			playerLocalization,
+			Long.parseLong(guildId)
+		);
+		trackLoader.loadItemSync(link, botQueueAudioLoader);
 		List<String> errors = botQueueAudioLoader.getErrors();
 		if (!errors.isEmpty()) {
 			throw new AddToQueueException(errors);
 		}
 	}
 
+	/**
+	 * Subscribe to player events (track start, end etc.)
+	 */
+	public void addAudioEventListener(AudioEventListener listener) {
+		audioPlayer.addListener(listener);
+	}
+
+	/**
+	 * Add already resolved tracks to queue, every player gets its own decoded copies
+	 */
+	public void addLoadedTracks(List<BotLoadResult> loadResults) {
+		loadResults.forEach(loadResult -> loadResult.decodeTracks(trackLoader::decode)
+			.forEach(botQueue::addLoadedTrack)
+		);
+	}
+
+	/**
+	 * Add track or playlist to queue by link without blocking. Playback starts as soon as the first track is added
+	 * (if nothing is playing), the rest of playlist is appended in batches.
+	 *
+	 * @param progressListener called after every appended batch, may be called from different threads
+	 * @return future of the final load progress
+	 */
+	public CompletableFuture<BotQueueLoadProgress> addToQueueAsync(
+		String link,
+		Consumer<BotQueueLoadProgress> progressListener
+	) {
+		return addToQueueAsync(Collections.singletonList(link), progressListener);
+	}
+
+	/**
+	 * Add several tracks or playlists to queue without blocking. Links are resolved concurrently (parallelism is
+	 * bounded by the track loader), but appended in the order they were passed.
+	 *
+	 * @param progressListener called after every appended batch with summary progress of all the links
+	 * @return future of the final load progress, completes with {@link AddToQueueException} if nothing was added,
+	 * exception holds an error for each failed link
+	 */
+	public CompletableFuture<BotQueueLoadProgress> addToQueueAsync(
+		List<String> links,
+		Consumer<BotQueueLoadProgress> progressListener
+	) {
+		List<CompletableFuture<BotLoadResult>> loads = links.stream()
+			.map(trackLoader::loadItem)
+			.collect(Collectors.toList());
+		CompletableFuture<BotQueueLoadProgress> summaryProgress = CompletableFuture.completedFuture(
+			BotQueueLoadProgress.empty()
+		);
+		for (int i = 0; i < links.size(); i++) {
+			String errorPrefix = links.size() > 1 ? String.format(LINK_ERROR_FORMAT, links.get(i)) : "";
+			CompletableFuture<BotLoadResult> load = loads.get(i);
+			summaryProgress = summaryProgress.thenCompose(previousProgress -> appendLoaded(
+				load,
+				progress -> progressListener.accept(previousProgress.merge(progress, errorPrefix))
+			).thenApply(progress -> previousProgress.merge(progress, errorPrefix)));
+		}
+		return summaryProgress.thenApply(progress -> {
+			if (progress.getAddedCount() == 0 && !progress.getErrors().isEmpty()) {
+				throw new AddToQueueException(progress.getErrors());
+			}
+			return progress;
+		});
+	}
+
+	private CompletableFuture<BotQueueLoadProgress> appendLoaded(
+		CompletableFuture<BotLoadResult> load,
+		Consumer<BotQueueLoadProgress> progressListener
+	) {
+		return load.thenCompose(loadResult -> {
+			switch (loadResult.getType()) {
+				case NO_MATCHES:
+					return CompletableFuture.completedFuture(BotQueueLoadProgress.failed(
+						playerLocalization.getGuildMessage(Long.parseLong(guildId), "track_not_found")
+					));
+				case FAILED:
+					return CompletableFuture.completedFuture(BotQueueLoadProgress.failed(
+						loadResult.getException().map(Throwable::getMessage).orElse("")
+					));
+				default:
+					return new BotQueueBatchLoader(
+						loadResult,
+						trackLoader,
+						botQueue,
+						threadPoolExecutor,
+						this::startIfIdle,
+						progressListener
+					).start();
+			}
+		}).exceptionally(throwable -> {
+			logger.error("Async queue load error", throwable);
+			return BotQueueLoadProgress.failed(throwable.getMessage());
+		});
+	}
+
+	private void startIfIdle() {
+		if (audioPlayer.getPlayingTrack() == null && !audioPlayer.isPaused()) {
+			botQueue.next();
+		}
+	}
+
 	/**
 	 * Start player (play\pause or unpause)
 	 */
@@ -173,6 +348,7 @@ public final class BotGuildPlayer extends AudioProvider {
 	 */
 	public void toggleRepeatQueue() {
 		botRepeatState = BotRepeatState.getNextState(botRepeatState, BotRepeatState.REPEAT_QUEUE);
+		journal.ifPresent(queueJournal -> queueJournal.repeatStateChanged(botRepeatState));
 	}
 
 	/**
@@ -180,6 +356,7 @@ public final class BotGuildPlayer extends AudioProvider {
 	 */
 	public void toggleRepeatTrack() {
 		botRepeatState = BotRepeatState.getNextState(botRepeatState, BotRepeatState.REPEAT);
+		journal.ifPresent(queueJournal -> queueJournal.repeatStateChanged(botRepeatState));
 	}
 
 	/**
@@ -201,6 +378,7 @@ public final class BotGuildPlayer extends AudioProvider {
 	 */
 	public void setVolume(float amount) {
 		volume = Math.max(0, Math.min(MAX_VOLUME, amount));
+		journal.ifPresent(queueJournal -> queueJournal.volumeChanged(volume));
 		int currentVolume = audioPlayer.getVolume();
 		threadPoolExecutor.execute(
 			() -> {
@@ -234,6 +412,24 @@ public final class BotGuildPlayer extends AudioProvider {
 		return botGuildPlayerUpdater.getMessage();
 	}
 
+	public BotPlayState getPlayState() {
+		return botGuildPlayerUpdater.getPlayerState();
+	}
+
+	/**
+	 * Last player gif render end (epoch millis), 0 if nothing was rendered
+	 */
+	public long getLastRenderTime() {
+		return botGuildPlayerUpdater.getLastRenderTime();
+	}
+
+	/**
+	 * Player changes not shown in the message yet
+	 */
+	public int getEditBacklog() {
+		return botGuildPlayerUpdater.getEditBacklog();
+	}
+
 	public BotRepeatState getBotRepeatState() {
 		return botRepeatState;
 	}
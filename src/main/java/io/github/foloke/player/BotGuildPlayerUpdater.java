@@ -5,6 +5,8 @@ import discord4j.core.object.entity.Message;
 import discord4j.core.spec.MessageCreateFields.File;
 import discord4j.rest.http.client.ClientException;
 import io.github.foloke.BotResourceHandler;
+import io.github.foloke.spring.metrics.BotPlayerMetrics;
+import io.github.foloke.spring.metrics.jfr.BotMessageEditEvent;
 import io.github.foloke.spring.services.localization.BotLocalization;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import org.slf4j.Logger;
@@ -15,6 +17,8 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -30,6 +34,7 @@ public class BotGuildPlayerUpdater extends Thread {
 	private static final String BG_UI_PLAYER_PNG = "ui/player.png";
 	private static final String DEFAULT_GIF_NAME = "ui.gif";
 	private static final String UPDATE_THREAD_STARTED_LOG_MESSAGE = "Update thread started: %s";
+	private static final String EDIT_OK_STATUS = "OK";
 	private static final String PLAYING_MESSAGE = "BotPlayer for guild %s is %s at position %s, track: \"%s\"";
 	private final Logger log = LoggerFactory.getLogger(getClass().getName() + ": " + Thread.currentThread().getName());
 	private final BotGuildPlayer botGuildPlayer;
@@ -42,15 +47,23 @@ public class BotGuildPlayerUpdater extends Thread {
 	private int previousQueuePosition;
 	private float previousVolume;
 	private String previousTrack;
+	private volatile long lastRenderTime;
+	private final AtomicInteger editBacklog = new AtomicInteger();
 
 	private final BotLocalization playerLocalization;
+	private final BotPlayerMetrics playerMetrics;
 
 	/**
 	 * Creates daemon thread to update player visuals (gif attachment). Use {@link this#setMessage(Message)} to
 	 * attach and start updating message;
 	 */
-	public BotGuildPlayerUpdater(BotGuildPlayer botGuildPlayer, BotLocalization playerLocalization) {
+	public BotGuildPlayerUpdater(
+		BotGuildPlayer botGuildPlayer,
+		BotLocalization playerLocalization,
+		BotPlayerMetrics playerMetrics
+	) {
 		this.playerLocalization = playerLocalization;
+		this.playerMetrics = playerMetrics;
 		this.botGuildPlayer = botGuildPlayer;
 		setDaemon(true);
 	}
@@ -94,9 +107,14 @@ public class BotGuildPlayerUpdater extends Thread {
 		previousTrack = botGuildPlayer.getLink();
 		previousVolume = botGuildPlayer.getVolume();
 		started = false;
+		editBacklog.incrementAndGet();
 		try {
+			long renderStartNanos = System.nanoTime();
 			String modtText = botGuildPlayer.getMotd();
-			String helpText = modtText.isEmpty() ? playerLocalization.getMessage("player_help_message") : modtText;
+			String helpText = modtText.isEmpty() ? playerLocalization.getGuildMessage(
+				Long.parseLong(botGuildPlayer.getGuildId()),
+				"player_help_message"
+			) : modtText;
 			String playerText = audioTrack == null ? helpText : audioTrack.getInfo().title;
 			InputStream gifImageInputStream = new BotPlayerGifBuilder(
 				previousQueuePosition,
@@ -107,11 +125,35 @@ public class BotGuildPlayerUpdater extends Thread {
 				.setStateImage(previousBotPlayState.getImage())
 				.setRepeatStateImage(previousBotRepeatState.getImage())
 				.buildInputStream();
+			lastRenderTime = System.currentTimeMillis();
+			playerMetrics.recordRender(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - renderStartNanos));
 			List<File> fileList = new ArrayList<>();
 			fileList.add(File.of(new Date().getTime() + DEFAULT_GIF_NAME, gifImageInputStream));
 			messageEditMutex.lock();
-			message = message.edit().withAttachmentsOrNull(new ArrayList<>()).withFiles(fileList).block();
-			messageEditMutex.unlock();
+			BotMessageEditEvent editEvent = new BotMessageEditEvent();
+			editEvent.begin();
+			long editStartNanos = System.nanoTime();
+			boolean edited = false;
+			try {
+				message = message.edit().withAttachmentsOrNull(new ArrayList<>()).withFiles(fileList).block();
+				edited = true;
+				editBacklog.set(0);
+				editEvent.status = EDIT_OK_STATUS;
+			} catch (ClientException e) {
+				editEvent.status = e.getStatus().toString();
+				throw e;
+			} catch (RuntimeException e) {
+				editEvent.status = e.getClass().getSimpleName();
+				throw e;
+			} finally {
+				playerMetrics.recordEdit(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - editStartNanos), !edited);
+				editEvent.end();
+				if (editEvent.shouldCommit()) {
+					editEvent.guildId = botGuildPlayer.getGuildId();
+					editEvent.commit();
+				}
+				messageEditMutex.unlock();
+			}
 		} catch (Exception e) {
 			log.error("Update cycle error", e);
 		}
@@ -151,6 +193,20 @@ public class BotGuildPlayerUpdater extends Thread {
 		return message;
 	}
 
+	/**
+	 * Last gif render end (epoch millis), 0 if nothing was rendered
+	 */
+	public long getLastRenderTime() {
+		return lastRenderTime;
+	}
+
+	/**
+	 * Player changes not shown yet: the running update and the failed ones since the last successful edit
+	 */
+	public int getEditBacklog() {
+		return editBacklog.get();
+	}
+
 	public BotPlayState getPlayerState() {
 		AudioTrack audioTrack = botGuildPlayer.getCurrentTrack();
 		if (audioTrack != null) {
@@ -0,0 +1,170 @@
+package io.github.foloke.player;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Load result of an identifier with encoded tracks. Holds no {@link AudioTrack} instances, so it can be cached and
+ * delivered many times, every delivery decodes fresh tracks.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotLoadResult {
+	private final Type type;
+	private final List<byte[]> encodedTracks;
+	private final String playlistName;
+	private final int selectedTrackIndex;
+	private final boolean searchResult;
+	private final FriendlyException exception;
+
+	private BotLoadResult(
+		Type type,
+		List<byte[]> encodedTracks,
+		String playlistName,
+		int selectedTrackIndex,
+		boolean searchResult,
+		FriendlyException exception
+	) {
+		this.type = type;
+		this.encodedTracks = encodedTracks;
+		this.playlistName = playlistName;
+		this.selectedTrackIndex = selectedTrackIndex;
+		this.searchResult = searchResult;
+		this.exception = exception;
+	}
+
+	/**
+	 * Single track result
+	 */
+	public static BotLoadResult track(byte[] encodedTrack) {
+		return new BotLoadResult(Type.TRACK, Collections.singletonList(encodedTrack), null, -1, false, null);
+	}
+
+	/**
+	 * Playlist (or search) result
+	 */
+	public static BotLoadResult playlist(
+		String name,
+		List<byte[]> encodedTracks,
+		int selectedTrackIndex,
+		boolean searchResult
+	) {
+		return new BotLoadResult(
+			Type.PLAYLIST,
+			new ArrayList<>(encodedTracks),
+			name,
+			selectedTrackIndex,
+			searchResult,
+			null
+		);
+	}
+
+	/**
+	 * Nothing found by identifier
+	 */
+	public static BotLoadResult noMatches() {
+		return new BotLoadResult(Type.NO_MATCHES, Collections.emptyList(), null, -1, false, null);
+	}
+
+	/**
+	 * Load failed with exception
+	 */
+	public static BotLoadResult failed(FriendlyException exception) {
+		return new BotLoadResult(Type.FAILED, Collections.emptyList(), null, -1, false, exception);
+	}
+
+	/**
+	 * Decodes tracks and passes result to the handler the same way {@link AudioLoadResultHandler} is used by
+	 * player manager
+	 *
+	 * @param decoder decodes track, returns null if track can't be decoded
+	 */
+	public void deliver(AudioLoadResultHandler handler, Function<byte[], AudioTrack> decoder) {
+		switch (type) {
+			case TRACK:
+				AudioTrack track = decoder.apply(encodedTracks.get(0));
+				if (track != null) {
+					handler.trackLoaded(track);
+				} else {
+					handler.loadFailed(new FriendlyException(
+						"Cached track decode error",
+						FriendlyException.Severity.SUSPICIOUS,
+						null
+					));
+				}
+				break;
+			case PLAYLIST:
+				List<AudioTrack> tracks = decodeTracks(decoder);
+				AudioTrack selectedTrack = selectedTrackIndex >= 0 && selectedTrackIndex < tracks.size()
+					? tracks.get(selectedTrackIndex)
+					: null;
+				handler.playlistLoaded(new BasicAudioPlaylist(playlistName, tracks, selectedTrack, searchResult));
+				break;
+			case NO_MATCHES:
+				handler.noMatches();
+				break;
+			default:
+				handler.loadFailed(exception);
+		}
+	}
+
+	/**
+	 * Decodes all the tracks, undecodable tracks are skipped
+	 */
+	public List<AudioTrack> decodeTracks(Function<byte[], AudioTrack> decoder) {
+		List<AudioTrack> tracks = new ArrayList<>(encodedTracks.size());
+		encodedTracks.stream().map(decoder).filter(Objects::nonNull).forEach(tracks::add);
+		return tracks;
+	}
+
+	/**
+	 * Decodes one track
+	 *
+	 * @return null if track can't be decoded
+	 */
+	public AudioTrack decodeTrack(int index, Function<byte[], AudioTrack> decoder) {
+		return decoder.apply(encodedTracks.get(index));
+	}
+
+	/**
+	 * Only found tracks are worth caching
+	 */
+	public boolean isCacheable() {
+		return type == Type.TRACK || type == Type.PLAYLIST;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public int getTracksCount() {
+		return encodedTracks.size();
+	}
+
+	/**
+	 * Load exception, present only for {@link Type#FAILED} result
+	 */
+	public Optional<FriendlyException> getException() {
+		return Optional.ofNullable(exception);
+	}
+
+	/**
+	 * Load result types, same as {@link AudioLoadResultHandler} callbacks
+	 */
+	public enum Type {
+		TRACK,
+		PLAYLIST,
+		NO_MATCHES,
+		FAILED
+	}
+}
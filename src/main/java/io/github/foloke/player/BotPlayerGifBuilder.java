@@ -3,6 +3,7 @@ package io.github.foloke.player;
 import de.cerus.jgif.GifEncoder;
 import de.cerus.jgif.GifImage;
 import discord4j.core.spec.MessageCreateFields.File;
+import io.github.foloke.spring.metrics.jfr.BotGifRenderEvent;
 import io.github.foloke.utils.BotGifFrameBuilder;
 
 import java.awt.*;
@@ -69,7 +70,12 @@ public class BotPlayerGifBuilder {
 	 * Creates {@link InputStream} that can be passed into {@link File}
 	 */
 	public InputStream buildInputStream() {
+		BotGifRenderEvent renderEvent = new BotGifRenderEvent();
+		renderEvent.begin();
+		long startNanos = System.nanoTime();
 		GifImage gifImage = makeAGif();
+		long drawEndNanos = System.nanoTime();
+		int framesCount = 0;
 
 		GifEncoder encoder = new GifEncoder();
 		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -78,9 +84,19 @@ public class BotPlayerGifBuilder {
 		encoder.setQuality(100);
 		for (BufferedImage frame : gifImage.getFrames()) {
 			encoder.addFrame(frame);
+			framesCount++;
 		}
 		encoder.finish();
 		byte[] bytes = outputStream.toByteArray();
+		long endNanos = System.nanoTime();
+		renderEvent.end();
+		if (renderEvent.shouldCommit()) {
+			renderEvent.frames = framesCount;
+			renderEvent.bytes = bytes.length;
+			renderEvent.drawNanos = drawEndNanos - startNanos;
+			renderEvent.encodeNanos = endNanos - drawEndNanos;
+			renderEvent.commit();
+		}
 		return new ByteArrayInputStream(bytes);
 	}
 
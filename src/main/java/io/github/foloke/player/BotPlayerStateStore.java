@@ -0,0 +1,26 @@
+package io.github.foloke.player;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Place where guild player state (queue journal with volume and repeat settings) lives between its owners. Node
+ * acquires the journal when it creates the guild player and releases it when the player is closed, so the guild can
+ * be taken over by another node.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public interface BotPlayerStateStore {
+	/**
+	 * Local journal file of the guild (brought from the store if it's kept elsewhere), empty if state is not persisted
+	 *
+	 * @throws IllegalStateException if the journal is owned by another node
+	 */
+	Optional<Path> acquire(String guildId);
+
+	/**
+	 * Journal is closed and compacted, its state can be given to the next owner
+	 */
+	void release(String guildId);
+}
@@ -12,6 +12,8 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import static com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason.FINISHED;
@@ -24,7 +26,10 @@ import static com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason.LOAD_FA
  * @since 04.02.2023
  */
 public class BotQueue extends AudioEventAdapter {
-
+	/**
+	 * Max tracks in the queue, further adds are rejected
+	 */
+	public static final int MAX_QUEUE_SIZE = 10000;
 	private final AudioPlayer player;
 	/**
 	 * Added tracks (Used for queue repeat)
@@ -40,14 +45,27 @@ public class BotQueue extends AudioEventAdapter {
 	private final LinkedList<AudioTrack> previousQueue = new LinkedList<>();
 	private final Logger log = LoggerFactory.getLogger(getClass().getName());
 	private final BotGuildPlayer botGuildPlayer;
-	private Optional<AudioTrack> lastTrack;
+	private final Optional<BotQueueJournal> journal;
+	/**
+	 * Guards the queues. Never held while calling the player: player events are dispatched under player's own lock
+	 */
+	private final Lock queueLock = new ReentrantLock();
+	private volatile Optional<AudioTrack> lastTrack = Optional.empty();
 
 	/**
 	 * Creates queue instance to manage player
 	 */
 	public BotQueue(AudioPlayer player, BotGuildPlayer botGuildPlayer) {
+		this(player, botGuildPlayer, Optional.empty());
+	}
+
+	/**
+	 * Creates queue instance to manage player, all queue mutations are written to the journal
+	 */
+	public BotQueue(AudioPlayer player, BotGuildPlayer botGuildPlayer, Optional<BotQueueJournal> journal) {
 		this.player = player;
 		this.botGuildPlayer = botGuildPlayer;
+		this.journal = journal;
 	}
 
 	@Override
@@ -92,25 +110,45 @@ public class BotQueue extends AudioEventAdapter {
 	 * Stops player if there is no more tracks.
 	 */
 	public void next() {
-		if (botGuildPlayer.getBotRepeatState() == BotRepeatState.REPEAT && lastTrack.isPresent()) {
-			play(lastTrack.get().makeClone());
+		Optional<AudioTrack> repeatedTrack = lastTrack;
+		if (botGuildPlayer.getBotRepeatState() == BotRepeatState.REPEAT && repeatedTrack.isPresent()) {
+			play(repeatedTrack.get().makeClone());
 			return;
 		}
 
-		if (!workQueue.isEmpty()) {
+		Optional<AudioTrack> nextTrack = pollNextTrack();
+		if (nextTrack.isPresent()) {
 			log.info("Playing next");
-			AudioTrack audioTrack = workQueue.pop();
-			previousQueue.add(audioTrack.makeClone());
-			play(audioTrack);
+			play(nextTrack.get());
 		} else {
-			if (botGuildPlayer.getBotRepeatState() == BotRepeatState.REPEAT_QUEUE && !queue.isEmpty()) {
+			lastTrack = Optional.empty();
+			player.stopTrack();
+			log.info("Queue is empty");
+		}
+	}
+
+	/**
+	 * Takes next track from the work queue, refills work queue if queue repeat is toggled
+	 */
+	private Optional<AudioTrack> pollNextTrack() {
+		queueLock.lock();
+		try {
+			if (workQueue.isEmpty()
+				&& botGuildPlayer.getBotRepeatState() == BotRepeatState.REPEAT_QUEUE
+				&& !queue.isEmpty()
+			) {
 				workQueue.addAll(queue.stream().map(AudioTrack::makeClone).collect(Collectors.toList()));
-				next();
-			} else {
-				lastTrack = Optional.empty();
-				player.stopTrack();
-				log.info("Queue is empty");
+				journal.ifPresent(queueJournal -> queueJournal.workQueueChanged(workQueue));
+			}
+			if (workQueue.isEmpty()) {
+				return Optional.empty();
 			}
+			AudioTrack audioTrack = workQueue.pop();
+			journal.ifPresent(BotQueueJournal::trackPolled);
+			previousQueue.add(audioTrack.makeClone());
+			return Optional.of(audioTrack);
+		} finally {
+			queueLock.unlock();
 		}
 	}
 
@@ -126,9 +164,15 @@ public class BotQueue extends AudioEventAdapter {
 	 * Clears all the queues
 	 */
 	public void clear() {
-		queue.clear();
-		workQueue.clear();
-		previousQueue.clear();
+		queueLock.lock();
+		try {
+			queue.clear();
+			workQueue.clear();
+			previousQueue.clear();
+			journal.ifPresent(BotQueueJournal::cleared);
+		} finally {
+			queueLock.unlock();
+		}
 		player.stopTrack();
 	}
 
@@ -136,9 +180,20 @@ public class BotQueue extends AudioEventAdapter {
 	 * Forces player to play previous track, current track is added to beginning of the queue to play as next.
 	 */
 	public void previous() {
-		if (!previousQueue.isEmpty()) {
-			AudioTrack audioTrack = previousQueue.pop();
-			workQueue.addFirst(player.getPlayingTrack().makeClone());
+		AudioTrack playingTrack = player.getPlayingTrack();
+		AudioTrack audioTrack = null;
+		queueLock.lock();
+		try {
+			if (!previousQueue.isEmpty() && playingTrack != null) {
+				AudioTrack previousTrack = previousQueue.pop();
+				workQueue.addFirst(playingTrack.makeClone());
+				journal.ifPresent(queueJournal -> queueJournal.previousPlayed(previousTrack, workQueue));
+				audioTrack = previousTrack;
+			}
+		} finally {
+			queueLock.unlock();
+		}
+		if (audioTrack != null) {
 			player.playTrack(audioTrack);
 		} else {
 			rewind();
@@ -149,8 +204,9 @@ public class BotQueue extends AudioEventAdapter {
 	 * Forces player to replay current track from the start.
 	 */
 	public void rewind() {
-		if (player.getPlayingTrack() != null) {
-			player.playTrack(player.getPlayingTrack().makeClone());
+		AudioTrack playingTrack = player.getPlayingTrack();
+		if (playingTrack != null) {
+			player.playTrack(playingTrack.makeClone());
 		} else {
 			next();
 		}
@@ -160,15 +216,26 @@ public class BotQueue extends AudioEventAdapter {
 	 * Shuffles tracks in the current queue, if there was a track played, adds it to the queue.
 	 */
 	public void shuffle(AudioTrack currentTrack) {
-		if (currentTrack != null) {
-			workQueue.addFirst(currentTrack.makeClone());
+		queueLock.lock();
+		try {
+			if (currentTrack != null) {
+				workQueue.addFirst(currentTrack.makeClone());
+			}
+			Collections.shuffle(workQueue);
+			journal.ifPresent(queueJournal -> queueJournal.workQueueChanged(workQueue));
+		} finally {
+			queueLock.unlock();
 		}
-		Collections.shuffle(workQueue);
 		next();
 	}
 
 	public int getQueueLen() {
-		return workQueue.size();
+		queueLock.lock();
+		try {
+			return workQueue.size();
+		} finally {
+			queueLock.unlock();
+		}
 	}
 
 	/**
@@ -176,11 +243,21 @@ public class BotQueue extends AudioEventAdapter {
 	 * queue 		/////////////
 	 */
 	public int getPlayedQueueLen() {
-		return queue.size() - workQueue.size();
+		queueLock.lock();
+		try {
+			return queue.size() - workQueue.size();
+		} finally {
+			queueLock.unlock();
+		}
 	}
 
 	public int getWholeQueueLen() {
-		return queue.size();
+		queueLock.lock();
+		try {
+			return queue.size();
+		} finally {
+			queueLock.unlock();
+		}
 	}
 
 	public String getLink() {
@@ -197,9 +274,49 @@ public class BotQueue extends AudioEventAdapter {
 
 	/**
 	 * Add preloaded track to the queue
+	 *
+	 * @return false if queue is full ({@link #MAX_QUEUE_SIZE}) and track was not added
 	 */
-	public void addLoadedTrack(AudioTrack track) {
-		queue.add(track);
-		workQueue.add(track);
+	public boolean addLoadedTrack(AudioTrack track) {
+		queueLock.lock();
+		try {
+			if (queue.size() >= MAX_QUEUE_SIZE) {
+				return false;
+			}
+			queue.add(track);
+			workQueue.add(track);
+			journal.ifPresent(queueJournal -> queueJournal.trackAdded(track));
+			return true;
+		} finally {
+			queueLock.unlock();
+		}
+	}
+
+	/**
+	 * Tracks count that can be added before queue is full
+	 */
+	public int getFreeSpace() {
+		queueLock.lock();
+		try {
+			return MAX_QUEUE_SIZE - queue.size();
+		} finally {
+			queueLock.unlock();
+		}
+	}
+
+	/**
+	 * Replaces queues with restored from the journal ones (restored tracks are not journaled again)
+	 */
+	public void restore(BotQueueJournal.RestoredQueue restoredQueue) {
+		queueLock.lock();
+		try {
+			queue.clear();
+			workQueue.clear();
+			previousQueue.clear();
+			queue.addAll(restoredQueue.getQueue());
+			workQueue.addAll(restoredQueue.getWorkQueue());
+		} finally {
+			queueLock.unlock();
+		}
 	}
-}
\ No newline at end of file
+}
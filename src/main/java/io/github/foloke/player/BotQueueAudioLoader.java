@@ -13,7 +13,8 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Audio load handler with exceptions messages save
+ * Audio load handler with exceptions messages save. Handler is called by the track loader threads, so messages are
+ * taken for the guild explicitly.
  *
  * @author Марченко Дмитрий
  * @since 08.03.2024
@@ -24,28 +25,38 @@ public class BotQueueAudioLoader implements AudioLoadResultHandler {
 	private final List<String> errors = new ArrayList<>();
 	private final BotQueue botQueue;
 	private final BotLocalization playerLocalization;
+	private final long guildId;
+	private boolean queueFull;
 
-	public BotQueueAudioLoader(BotQueue botQueue, BotLocalization playerLocalization) {
+	public BotQueueAudioLoader(BotQueue botQueue, BotLocalization playerLocalization, long guildId) {
 		this.botQueue = botQueue;
 		this.playerLocalization = playerLocalization;
+		this.guildId = guildId;
 	}
 
 	@Override
 	public void trackLoaded(AudioTrack track) {
-		botQueue.addLoadedTrack(track);
+		addLoadedTrack(track);
 		log.info(String.format(LOADED_LOG_MESSAGE_FORMAT, track.getInfo().title));
 	}
 
 	@Override
 	public void playlistLoaded(AudioPlaylist playlist) {
-		playlist.getTracks().forEach(botQueue::addLoadedTrack);
+		playlist.getTracks().forEach(this::addLoadedTrack);
 		log.info("Playlist loaded");
 	}
 
+	private void addLoadedTrack(AudioTrack track) {
+		if (!botQueue.addLoadedTrack(track) && !queueFull) {
+			queueFull = true;
+			errors.add(playerLocalization.getGuildMessage(guildId, "queue_full_warning", BotQueue.MAX_QUEUE_SIZE));
+		}
+	}
+
 	@Override
 	public void noMatches() {
 		log.info("No matching track, probably playlist");
-		errors.add(playerLocalization.getMessage("track_not_found"));
+		errors.add(playerLocalization.getGuildMessage(guildId, "track_not_found"));
 	}
 
 	@Override
@@ -0,0 +1,108 @@
+package io.github.foloke.player;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Appends resolved tracks to the queue in batches. The first added track is appended alone (tracks that can't be
+ * decoded are skipped), so playback can start right away, every next batch is a separate executor task, so big
+ * playlists don't hold the executor. Stops appending when queue is full.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+class BotQueueBatchLoader implements Runnable {
+	private static final int BATCH_SIZE = 100;
+	private final Logger log = LoggerFactory.getLogger(getClass().getName());
+	private final BotLoadResult loadResult;
+	private final BotTrackLoader trackLoader;
+	private final BotQueue botQueue;
+	private final Executor executor;
+	private final Runnable firstTrackCallback;
+	private final Consumer<BotQueueLoadProgress> progressListener;
+	private final CompletableFuture<BotQueueLoadProgress> result = new CompletableFuture<>();
+	private final List<String> errors = new ArrayList<>();
+	private int position;
+	private int addedCount;
+	private int droppedCount;
+
+	/**
+	 * @param firstTrackCallback called once, after the first decoded track is added
+	 * @param progressListener called after every batch and on finish
+	 */
+	BotQueueBatchLoader(
+		BotLoadResult loadResult,
+		BotTrackLoader trackLoader,
+		BotQueue botQueue,
+		Executor executor,
+		Runnable firstTrackCallback,
+		Consumer<BotQueueLoadProgress> progressListener
+	) {
+		this.loadResult = loadResult;
+		this.trackLoader = trackLoader;
+		this.botQueue = botQueue;
+		this.executor = executor;
+		this.firstTrackCallback = firstTrackCallback;
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Starts appending
+	 *
+	 * @return future of the final progress
+	 */
+	CompletableFuture<BotQueueLoadProgress> start() {
+		executor.execute(this);
+		return result;
+	}
+
+	@Override
+	public void run() {
+		try {
+			int total = loadResult.getTracksCount();
+			boolean starting = addedCount == 0;
+			int batchEnd = Math.min(total, position + BATCH_SIZE);
+			while (position < batchEnd) {
+				AudioTrack track = loadResult.decodeTrack(position, trackLoader::decode);
+				if (track != null && !botQueue.addLoadedTrack(track)) {
+					droppedCount = total - position;
+					position = total;
+					break;
+				}
+				position++;
+				if (track != null) {
+					addedCount++;
+					if (starting) {
+						firstTrackCallback.run();
+						break;
+					}
+				}
+			}
+			BotQueueLoadProgress progress = getProgress(position >= total);
+			progressListener.accept(progress);
+			if (progress.isDone()) {
+				log.info(String.format("Tracks added: %d of %d", addedCount, total));
+				result.complete(progress);
+			} else {
+				executor.execute(this);
+			}
+		} catch (Exception e) {
+			log.error("Batch append error", e);
+			errors.add(e.getMessage());
+			BotQueueLoadProgress progress = getProgress(true);
+			progressListener.accept(progress);
+			result.complete(progress);
+		}
+	}
+
+	private BotQueueLoadProgress getProgress(boolean done) {
+		return new BotQueueLoadProgress(addedCount, loadResult.getTracksCount(), droppedCount, errors, done);
+	}
+}
@@ -0,0 +1,536 @@
+package io.github.foloke.player;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only memory-mapped journal of the guild queue. Every queue mutation is written as a small record, tracks are
+ * stored encoded, so the queue can be restored on startup without resolving anything over the network. Journal is
+ * compacted into a snapshot when dead records take most of the file.
+ * <p>
+ * Record layout: [int length][byte type][payload], length covers type and payload. Length is written after the
+ * payload, so a zero length marks the end of the journal (mapped file tail is zero filled).
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotQueueJournal implements Closeable {
+	private static final Logger log = LoggerFactory.getLogger(BotQueueJournal.class.getName());
+	private static final int INITIAL_CAPACITY = 64 * 1024;
+	private static final int COMPACTION_MIN_SIZE = 1024 * 1024;
+	private static final int COMPACTION_RATIO = 4;
+	private static final int RECORD_HEADER_SIZE = Integer.BYTES;
+	private static final String COMPACTION_SUFFIX = ".compact";
+
+	private static final byte TRACK_ADDED = 1;
+	private static final byte TRACK_POLLED = 2;
+	private static final byte WORK_QUEUE_CHANGED = 3;
+	private static final byte CLEARED = 4;
+	private static final byte VOLUME_CHANGED = 5;
+	private static final byte REPEAT_STATE_CHANGED = 6;
+	private static final byte PREVIOUS_PLAYED = 7;
+
+	private final Path path;
+	private final BotTrackLoader trackLoader;
+	/**
+	 * Journal mirror of the queue, tracks are referenced by identifier
+	 */
+	private final List<String> queue = new ArrayList<>();
+	private final Deque<String> workQueue = new ArrayDeque<>();
+	private final Map<String, byte[]> encodedTracks = new HashMap<>();
+	private String currentTrack;
+	private float volume = BotGuildPlayer.DEFAULT_VOLUME;
+	private BotRepeatState botRepeatState = BotRepeatState.NONE;
+	private long liveSize;
+
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private boolean broken;
+	/**
+	 * Journal size at the last failed compaction, 0 if the last compaction succeeded
+	 */
+	private long failedCompactionSize;
+
+	private BotQueueJournal(Path path, BotTrackLoader trackLoader) {
+		this.path = path;
+		this.trackLoader = trackLoader;
+	}
+
+	/**
+	 * Opens (or creates) journal file and replays its records. Track loader is used only for tracks
+	 * encoding\decoding, no tracks are loaded.
+	 */
+	public static BotQueueJournal open(Path path, BotTrackLoader trackLoader) throws IOException {
+		BotQueueJournal journal = new BotQueueJournal(path, trackLoader);
+		Path parent = path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		journal.map();
+		journal.replay();
+		return journal;
+	}
+
+	private void map() throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long capacity = Math.max(INITIAL_CAPACITY, channel.size());
+		buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+	}
+
+	private void replay() {
+		int position = 0;
+		while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+			int length = buffer.getInt(position);
+			if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+				break;
+			}
+			byte[] record = new byte[length];
+			buffer.position(position + RECORD_HEADER_SIZE);
+			buffer.get(record);
+			try {
+				apply(new DataInputStream(new ByteArrayInputStream(record)), length);
+			} catch (IOException e) {
+				log.error(String.format("Corrupted journal record at %d in %s, rest is dropped", position, path), e);
+				for (int i = position; i < buffer.capacity(); i++) {
+					buffer.put(i, (byte) 0);
+				}
+				break;
+			}
+			position += RECORD_HEADER_SIZE + length;
+		}
+		buffer.position(position);
+		log.info(String.format("Journal %s replayed: %d tracks in queue", path, queue.size()));
+	}
+
+	private void apply(DataInputStream input, int recordSize) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case TRACK_ADDED:
+				String identifier = input.readUTF();
+				int encodedTrackLength = input.readInt();
+				if (encodedTrackLength < 0 || encodedTrackLength > recordSize) {
+					throw new IOException(String.format("Wrong encoded track length: %d", encodedTrackLength));
+				}
+				byte[] encodedTrack = new byte[encodedTrackLength];
+				input.readFully(encodedTrack);
+				encodedTracks.putIfAbsent(identifier, encodedTrack);
+				queue.add(identifier);
+				workQueue.add(identifier);
+				liveSize += RECORD_HEADER_SIZE + recordSize;
+				break;
+			case TRACK_POLLED:
+				currentTrack = workQueue.poll();
+				break;
+			case WORK_QUEUE_CHANGED:
+				readIdentifiers(input, workQueue);
+				break;
+			case CLEARED:
+				clearMirror();
+				break;
+			case VOLUME_CHANGED:
+				volume = input.readFloat();
+				break;
+			case REPEAT_STATE_CHANGED:
+				byte repeatState = input.readByte();
+				if (repeatState < 0 || repeatState >= BotRepeatState.values().length) {
+					throw new IOException(String.format("Unknown repeat state: %d", repeatState));
+				}
+				botRepeatState = BotRepeatState.values()[repeatState];
+				break;
+			case PREVIOUS_PLAYED:
+				currentTrack = input.readUTF();
+				readIdentifiers(input, workQueue);
+				break;
+			default:
+				throw new IOException(String.format("Unknown record type: %d", type));
+		}
+	}
+
+	/**
+	 * Track was added to the end of the queue
+	 */
+	public synchronized void trackAdded(AudioTrack track) {
+		String identifier = track.getIdentifier();
+		try {
+			byte[] encodedTrack = encodedTracks.get(identifier);
+			if (encodedTrack == null) {
+				encodedTrack = trackLoader.encode(track);
+			}
+			byte[] finalEncodedTrack = encodedTrack;
+			int recordSize = append(TRACK_ADDED, output -> {
+				output.writeUTF(identifier);
+				output.writeInt(finalEncodedTrack.length);
+				output.write(finalEncodedTrack);
+			});
+			encodedTracks.putIfAbsent(identifier, encodedTrack);
+			queue.add(identifier);
+			workQueue.add(identifier);
+			liveSize += recordSize;
+			compactIfNeeded();
+		} catch (IOException e) {
+			onWriteError(e);
+		} catch (UncheckedIOException e) {
+			log.error(String.format("Track can't be journaled: %s", identifier), e);
+		}
+	}
+
+	/**
+	 * Next track was taken from the work queue to play
+	 */
+	public synchronized void trackPolled() {
+		try {
+			append(TRACK_POLLED, output -> { });
+			currentTrack = workQueue.poll();
+			compactIfNeeded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	}
+
+	/**
+	 * Work queue was reordered (shuffle, previous track, queue repeat)
+	 */
+	public synchronized void workQueueChanged(Collection<AudioTrack> tracks) {
+		try {
+			List<String> identifiers = new ArrayList<>(tracks.size());
+			tracks.forEach(track -> identifiers.add(track.getIdentifier()));
+			append(WORK_QUEUE_CHANGED, output -> writeIdentifiers(output, identifiers));
+			workQueue.clear();
+			workQueue.addAll(identifiers);
+			compactIfNeeded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	}
+
+	/**
+	 * Previous track is played instead of the current one, the current one was put back to the work queue
+	 */
+	public synchronized void previousPlayed(AudioTrack track, Collection<AudioTrack> tracks) {
+		try {
+			List<String> identifiers = new ArrayList<>(tracks.size());
+			tracks.forEach(workQueueTrack -> identifiers.add(workQueueTrack.getIdentifier()));
+			String identifier = track.getIdentifier();
+			append(PREVIOUS_PLAYED, output -> {
+				output.writeUTF(identifier);
+				writeIdentifiers(output, identifiers);
+			});
+			workQueue.clear();
+			workQueue.addAll(identifiers);
+			currentTrack = identifier;
+			compactIfNeeded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	}
+
+	/**
+	 * All queues were dropped
+	 */
+	public synchronized void cleared() {
+		try {
+			append(CLEARED, output -> { });
+			clearMirror();
+			compactIfNeeded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	}
+
+	/**
+	 * Player volume was changed
+	 */
+	public synchronized void volumeChanged(float volume) {
+		try {
+			append(VOLUME_CHANGED, output -> output.writeFloat(volume));
+			this.volume = volume;
+			compactIfNeeded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	}
+
+	/**
+	 * Player repeat state was changed
+	 */
+	public synchronized void repeatStateChanged(BotRepeatState botRepeatState) {
+		try {
+			append(REPEAT_STATE_CHANGED, output -> output.writeByte(botRepeatState.ordinal()));
+			this.botRepeatState = botRepeatState;
+			compactIfNeeded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	}
+
+	/**
+	 * Decodes journaled queue. Track, that was playing, is returned as the first one of the work queue.
+	 *
+	 * @return pair of the whole queue and the work queue, tracks with the same identifier are clones
+	 */
+	public synchronized RestoredQueue restore() {
+		Map<String, AudioTrack> decodedTracks = new HashMap<>();
+		List<AudioTrack> restoredQueue = decodeAll(queue, decodedTracks);
+		List<String> restoredWorkQueueIds = new ArrayList<>(workQueue.size() + 1);
+		if (currentTrack != null) {
+			restoredWorkQueueIds.add(currentTrack);
+		}
+		restoredWorkQueueIds.addAll(workQueue);
+		List<AudioTrack> restoredWorkQueue = decodeAll(restoredWorkQueueIds, decodedTracks);
+		return new RestoredQueue(restoredQueue, restoredWorkQueue);
+	}
+
+	private List<AudioTrack> decodeAll(Collection<String> identifiers, Map<String, AudioTrack> decodedTracks) {
+		List<AudioTrack> tracks = new ArrayList<>(identifiers.size());
+		identifiers.forEach(identifier -> {
+			AudioTrack decodedTrack = decodedTracks.computeIfAbsent(identifier, this::decode);
+			if (decodedTrack != null) {
+				tracks.add(decodedTrack.makeClone());
+			}
+		});
+		return tracks;
+	}
+
+	private AudioTrack decode(String identifier) {
+		byte[] encodedTrack = encodedTracks.get(identifier);
+		return encodedTrack == null ? null : trackLoader.decode(encodedTrack);
+	}
+
+	public synchronized float getVolume() {
+		return volume;
+	}
+
+	public synchronized BotRepeatState getBotRepeatState() {
+		return botRepeatState;
+	}
+
+	public synchronized boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	private int append(byte type, RecordWriter recordWriter) throws IOException {
+		if (broken) {
+			return 0;
+		}
+		byte[] record = encodeRecord(type, recordWriter);
+		int position = buffer.position();
+		ensureCapacity(position + RECORD_HEADER_SIZE + record.length);
+		buffer.position(position + RECORD_HEADER_SIZE);
+		buffer.put(record);
+		buffer.putInt(position, record.length);
+		return RECORD_HEADER_SIZE + record.length;
+	}
+
+	private static byte[] encodeRecord(byte type, RecordWriter recordWriter) throws IOException {
+		ByteArrayOutputStream recordStream = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(recordStream);
+		output.writeByte(type);
+		recordWriter.write(output);
+		output.flush();
+		return recordStream.toByteArray();
+	}
+
+	private void ensureCapacity(int requiredCapacity) throws IOException {
+		if (requiredCapacity > buffer.capacity()) {
+			int position = buffer.position();
+			long capacity = buffer.capacity();
+			while (capacity < requiredCapacity) {
+				capacity *= 2;
+			}
+			buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+			buffer.position(position);
+		}
+	}
+
+	private void compactIfNeeded() throws IOException {
+		int size = buffer.position();
+		if (size > COMPACTION_MIN_SIZE && size > liveSize * COMPACTION_RATIO && size > failedCompactionSize * 2) {
+			compact();
+		}
+	}
+
+	/**
+	 * Rewrites journal as a snapshot of the current state. Snapshot is written to the temporary file and then moved
+	 * over the journal, so the journal is never left half-written. If the snapshot can't be written, the journal is
+	 * kept as is and compaction is retried when it doubles.
+	 *
+	 * @throws IOException if the compacted journal can't be opened (journaling is disabled then)
+	 */
+	public synchronized void compact() throws IOException {
+		if (broken) {
+			return;
+		}
+		Path compactionPath = path.resolveSibling(path.getFileName() + COMPACTION_SUFFIX);
+		long snapshotLiveSize;
+		try {
+			snapshotLiveSize = writeSnapshot(compactionPath);
+		} catch (IOException e) {
+			log.error(String.format("Journal %s compaction error, journal is kept", path), e);
+			failedCompactionSize = buffer.position();
+			Files.deleteIfExists(compactionPath);
+			return;
+		}
+		channel.close();
+		channel = null;
+		buffer = null;
+		try {
+			Files.move(compactionPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			map();
+		} catch (IOException e) {
+			log.error(String.format("Compacted journal %s can't be opened", path), e);
+			broken = true;
+			throw e;
+		}
+		buffer.position((int) Files.size(path));
+		liveSize = snapshotLiveSize;
+		failedCompactionSize = 0;
+		encodedTracks.keySet().retainAll(queue);
+		log.info(String.format("Journal %s compacted to %d bytes", path, buffer.position()));
+	}
+
+	/**
+	 * Writes records that replay into the current state and flushes them to the disk
+	 *
+	 * @return size of the records of the queued tracks
+	 */
+	private long writeSnapshot(Path snapshotPath) throws IOException {
+		ByteArrayOutputStream snapshotStream = new ByteArrayOutputStream();
+		DataOutputStream snapshot = new DataOutputStream(snapshotStream);
+		long snapshotLiveSize = 0;
+		for (String identifier : queue) {
+			byte[] encodedTrack = encodedTracks.get(identifier);
+			snapshotLiveSize += writeRecord(snapshot, TRACK_ADDED, output -> {
+				output.writeUTF(identifier);
+				output.writeInt(encodedTrack.length);
+				output.write(encodedTrack);
+			});
+		}
+		List<String> snapshotWorkQueue = new ArrayList<>(workQueue.size() + 1);
+		if (currentTrack != null) {
+			snapshotWorkQueue.add(currentTrack);
+		}
+		snapshotWorkQueue.addAll(workQueue);
+		writeRecord(snapshot, WORK_QUEUE_CHANGED, output -> writeIdentifiers(output, snapshotWorkQueue));
+		if (currentTrack != null) {
+			writeRecord(snapshot, TRACK_POLLED, output -> { });
+		}
+		writeRecord(snapshot, VOLUME_CHANGED, output -> output.writeFloat(volume));
+		writeRecord(snapshot, REPEAT_STATE_CHANGED, output -> output.writeByte(botRepeatState.ordinal()));
+		snapshot.flush();
+		try (FileChannel snapshotChannel = FileChannel.open(
+			snapshotPath,
+			StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.WRITE
+		)) {
+			ByteBuffer snapshotBuffer = ByteBuffer.wrap(snapshotStream.toByteArray());
+			while (snapshotBuffer.hasRemaining()) {
+				snapshotChannel.write(snapshotBuffer);
+			}
+			snapshotChannel.force(true);
+		}
+		return snapshotLiveSize;
+	}
+
+	private static int writeRecord(DataOutputStream snapshot, byte type, RecordWriter recordWriter) throws IOException {
+		byte[] record = encodeRecord(type, recordWriter);
+		snapshot.writeInt(record.length);
+		snapshot.write(record);
+		return RECORD_HEADER_SIZE + record.length;
+	}
+
+	private void clearMirror() {
+		queue.clear();
+		workQueue.clear();
+		currentTrack = null;
+		liveSize = 0;
+	}
+
+	private void onWriteError(IOException e) {
+		log.error(String.format("Journal write error, journaling is disabled for %s", path), e);
+		broken = true;
+	}
+
+	private static void readIdentifiers(DataInputStream input, Deque<String> identifiers) throws IOException {
+		int size = input.readInt();
+		identifiers.clear();
+		for (int i = 0; i < size; i++) {
+			identifiers.add(input.readUTF());
+		}
+	}
+
+	private static void writeIdentifiers(DataOutputStream output, List<String> identifiers) throws IOException {
+		output.writeInt(identifiers.size());
+		for (String identifier : identifiers) {
+			output.writeUTF(identifier);
+		}
+	}
+
+	/**
+	 * Compacts journal and releases the file
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel != null) {
+			try {
+				compact();
+			} finally {
+				if (channel != null) {
+					buffer.force();
+					channel.close();
+					channel = null;
+				}
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface RecordWriter {
+		void write(DataOutputStream output) throws IOException;
+	}
+
+	/**
+	 * Decoded queue state
+	 */
+	public static final class RestoredQueue {
+		private final List<AudioTrack> queue;
+		private final List<AudioTrack> workQueue;
+
+		private RestoredQueue(List<AudioTrack> queue, List<AudioTrack> workQueue) {
+			this.queue = queue;
+			this.workQueue = workQueue;
+		}
+
+		public List<AudioTrack> getQueue() {
+			return queue;
+		}
+
+		public List<AudioTrack> getWorkQueue() {
+			return workQueue;
+		}
+	}
+}
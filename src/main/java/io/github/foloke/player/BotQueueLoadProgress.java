@@ -0,0 +1,85 @@
+package io.github.foloke.player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of asynchronous queue load
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotQueueLoadProgress {
+	private final int addedCount;
+	private final int totalCount;
+	private final int droppedCount;
+	private final List<String> errors;
+	private final boolean done;
+
+	/**
+	 * @param addedCount tracks added to the queue
+	 * @param totalCount tracks found by the link
+	 * @param droppedCount tracks not added because queue is full
+	 * @param errors load error messages
+	 * @param done is load finished
+	 */
+	public BotQueueLoadProgress(int addedCount, int totalCount, int droppedCount, List<String> errors, boolean done) {
+		this.addedCount = addedCount;
+		this.totalCount = totalCount;
+		this.droppedCount = droppedCount;
+		this.errors = new ArrayList<>(errors);
+		this.done = done;
+	}
+
+	/**
+	 * Nothing is loaded yet
+	 */
+	public static BotQueueLoadProgress empty() {
+		return new BotQueueLoadProgress(0, 0, 0, Collections.emptyList(), true);
+	}
+
+	/**
+	 * Summary progress of this load followed by the next one
+	 *
+	 * @param errorPrefix prefix for next load errors
+	 */
+	public BotQueueLoadProgress merge(BotQueueLoadProgress next, String errorPrefix) {
+		List<String> summaryErrors = new ArrayList<>(errors);
+		next.errors.forEach(error -> summaryErrors.add(errorPrefix + error));
+		return new BotQueueLoadProgress(
+			addedCount + next.addedCount,
+			totalCount + next.totalCount,
+			droppedCount + next.droppedCount,
+			summaryErrors,
+			next.done
+		);
+	}
+
+	/**
+	 * Finished load, nothing was added
+	 */
+	public static BotQueueLoadProgress failed(String error) {
+		return new BotQueueLoadProgress(0, 0, 0, Collections.singletonList(error), true);
+	}
+
+	public int getAddedCount() {
+		return addedCount;
+	}
+
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	public int getDroppedCount() {
+		return droppedCount;
+	}
+
+	public List<String> getErrors() {
+		return new ArrayList<>(errors);
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+}
@@ -0,0 +1,325 @@
+package io.github.foloke.player;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+import io.github.foloke.spring.metrics.BotPlayerMetrics;
+import io.github.foloke.spring.metrics.jfr.BotTrackLoadEvent;
+import io.github.foloke.utils.BotLoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Shared audio player manager with cache of resolved identifiers. Results are cached encoded, every load decodes
+ * fresh {@link AudioTrack}s, concurrent loads of the same identifier are resolved once. Prefetched identifiers are
+ * kept in a separate small short-lived cache and moved to the main cache only when they are really loaded.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotTrackLoader {
+	private static final Logger log = LoggerFactory.getLogger(BotTrackLoader.class.getName());
+	private static final String YT_WATCH_URL = "https://www.youtube.com/watch?v=";
+	private static final String YT_PLAYLIST_URL = "https://www.youtube.com/playlist?list=";
+	private static final String YT_LIST_PARAM = "&list=";
+	private static final String YT_SHORT_HOST = "youtu.be";
+	private static final String YT_HOST = "youtube.com";
+	private static final String YT_WATCH_PATH = "/watch";
+	private static final String YT_PLAYLIST_PATH = "/playlist";
+	private static final String[] HOST_PREFIXES = {"www.", "m.", "music."};
+
+	private final AudioPlayerManager playerManager;
+	private final BotLoadingCache<String, BotLoadResult> cache;
+	private final BotLoadingCache<String, BotLoadResult> prefetchCache;
+	private final BotPlayerMetrics playerMetrics;
+
+	/**
+	 * @param playerManager manager with registered sources, used for loading, players creation and tracks encoding
+	 * @param cacheSize max cached identifiers
+	 * @param cacheTtlMinutes cached result time to live
+	 * @param prefetchCacheSize max prefetched identifiers
+	 * @param prefetchTtlMinutes prefetched result time to live
+	 */
+	public BotTrackLoader(
+		AudioPlayerManager playerManager,
+		int cacheSize,
+		long cacheTtlMinutes,
+		int prefetchCacheSize,
+		long prefetchTtlMinutes,
+		BotPlayerMetrics playerMetrics
+	) {
+		this.playerManager = playerManager;
+		this.playerMetrics = playerMetrics;
+		cache = new BotLoadingCache<>(cacheSize, cacheTtlMinutes, TimeUnit.MINUTES, BotLoadResult::isCacheable);
+		prefetchCache = new BotLoadingCache<>(
+			prefetchCacheSize,
+			prefetchTtlMinutes,
+			TimeUnit.MINUTES,
+			BotLoadResult::isCacheable
+		);
+	}
+
+	/**
+	 * Creates player manager with all the remote sources
+	 *
+	 * @param loaderThreads max concurrently resolved identifiers
+	 */
+	public static AudioPlayerManager createDefaultPlayerManager(int loaderThreads) {
+		AudioPlayerManager playerManager = new DefaultAudioPlayerManager();
+		playerManager.setItemLoaderThreadPoolSize(loaderThreads);
+		AudioSourceManagers.registerRemoteSources(playerManager);
+		playerManager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
+		return playerManager;
+	}
+
+	/**
+	 * Loads identifier (cached if possible) and passes decoded tracks to the handler, blocks until loaded
+	 */
+	public void loadItemSync(String identifier, AudioLoadResultHandler handler) {
+		BotLoadResult loadResult;
+		try {
+			loadResult = loadItem(identifier).join();
+		} catch (CompletionException e) {
+			loadResult = BotLoadResult.failed(new FriendlyException(
+				"Track load error",
+				FriendlyException.Severity.FAULT,
+				e.getCause()
+			));
+		}
+		loadResult.deliver(handler, this::decode);
+	}
+
+	/**
+	 * Loads identifier result, cached result is returned if present
+	 */
+	public CompletableFuture<BotLoadResult> loadItem(String identifier) {
+		return cache.get(normalizeIdentifier(identifier), this::resolvePrefetched);
+	}
+
+	/**
+	 * Resolves identifier into the prefetch cache, nothing is done if it is cached already
+	 *
+	 * @return completes when resolved
+	 */
+	public CompletableFuture<BotLoadResult> prefetch(String identifier) {
+		String key = normalizeIdentifier(identifier);
+		return cache.getIfPresentOrLoading(key).orElseGet(() -> prefetchCache.get(key, this::resolve));
+	}
+
+	/**
+	 * Prefetched (or being prefetched) result is taken from the prefetch cache, the main cache keeps it then
+	 */
+	private CompletableFuture<BotLoadResult> resolvePrefetched(String identifier) {
+		Optional<CompletableFuture<BotLoadResult>> prefetched = prefetchCache.getIfPresentOrLoading(identifier);
+		if (!prefetched.isPresent()) {
+			return resolve(identifier);
+		}
+		return prefetched.get().whenComplete((result, throwable) -> prefetchCache.invalidate(identifier));
+	}
+
+	private CompletableFuture<BotLoadResult> resolve(String identifier) {
+		CompletableFuture<BotLoadResult> loadResult = new CompletableFuture<>();
+		log.info(String.format("Resolving: %s", identifier));
+		BotTrackLoadEvent loadEvent = new BotTrackLoadEvent();
+		loadEvent.begin();
+		long startNanos = System.nanoTime();
+		loadResult.whenComplete((result, throwable) -> {
+			playerMetrics.recordTrackLoad(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+			loadEvent.end();
+			if (loadEvent.shouldCommit()) {
+				loadEvent.identifier = identifier;
+				loadEvent.source = getSource(identifier);
+				loadEvent.result = throwable == null ? result.getType().name() : throwable.getClass().getSimpleName();
+				loadEvent.commit();
+			}
+		});
+		playerManager.loadItem(identifier, new AudioLoadResultHandler() {
+			@Override
+			public void trackLoaded(AudioTrack track) {
+				complete(() -> BotLoadResult.track(encode(track)));
+			}
+
+			@Override
+			public void playlistLoaded(AudioPlaylist playlist) {
+				complete(() -> {
+					List<AudioTrack> tracks = playlist.getTracks();
+					List<byte[]> encodedTracks = new ArrayList<>(tracks.size());
+					tracks.forEach(track -> encodedTracks.add(encode(track)));
+					int selectedTrackIndex = playlist.getSelectedTrack() == null
+						? -1
+						: tracks.indexOf(playlist.getSelectedTrack());
+					return BotLoadResult.playlist(
+						playlist.getName(),
+						encodedTracks,
+						selectedTrackIndex,
+						playlist.isSearchResult()
+					);
+				});
+			}
+
+			@Override
+			public void noMatches() {
+				loadResult.complete(BotLoadResult.noMatches());
+			}
+
+			@Override
+			public void loadFailed(FriendlyException exception) {
+				loadResult.complete(BotLoadResult.failed(exception));
+			}
+
+			private void complete(Supplier<BotLoadResult> resultSupplier) {
+				try {
+					loadResult.complete(resultSupplier.get());
+				} catch (UncheckedIOException e) {
+					loadResult.completeExceptionally(e);
+				}
+			}
+		});
+		return loadResult;
+	}
+
+	/**
+	 * Encodes track with its state-independent info, so it can be decoded later without resolving
+	 *
+	 * @throws UncheckedIOException if track source doesn't support encoding
+	 */
+	public byte[] encode(AudioTrack track) {
+		try {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			MessageOutput messageOutput = new MessageOutput(outputStream);
+			playerManager.encodeTrack(messageOutput, track);
+			messageOutput.finish();
+			return outputStream.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Decodes new track instance
+	 *
+	 * @return null if track can't be decoded
+	 */
+	public AudioTrack decode(byte[] encodedTrack) {
+		try {
+			DecodedTrackHolder holder = playerManager.decodeTrack(
+				new MessageInput(new ByteArrayInputStream(encodedTrack))
+			);
+			return holder == null ? null : holder.decodedTrack;
+		} catch (IOException e) {
+			log.error("Track decode error", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Maps different links to the same video\playlist into one cache key, other identifiers are only trimmed
+	 */
+	static String normalizeIdentifier(String identifier) {
+		String trimmedIdentifier = identifier.trim();
+		try {
+			URI uri = new URI(trimmedIdentifier);
+			String host = uri.getHost();
+			if (host == null) {
+				return trimmedIdentifier;
+			}
+			host = host.toLowerCase(Locale.ROOT);
+			for (String prefix : HOST_PREFIXES) {
+				if (host.startsWith(prefix)) {
+					host = host.substring(prefix.length());
+				}
+			}
+			String path = uri.getPath() == null ? "" : uri.getPath();
+			Map<String, String> params = parseQuery(uri.getRawQuery());
+			String listId = params.get("list");
+			String listParam = listId == null ? "" : YT_LIST_PARAM + listId;
+			if (YT_SHORT_HOST.equals(host) && path.length() > 1) {
+				return YT_WATCH_URL + path.substring(1) + listParam;
+			}
+			if (YT_HOST.equals(host)) {
+				if (YT_WATCH_PATH.equals(path) && params.containsKey("v")) {
+					return YT_WATCH_URL + params.get("v") + listParam;
+				}
+				if (YT_PLAYLIST_PATH.equals(path) && listId != null) {
+					return YT_PLAYLIST_URL + listId;
+				}
+			}
+			return trimmedIdentifier;
+		} catch (URISyntaxException e) {
+			return trimmedIdentifier;
+		}
+	}
+
+	/**
+	 * Link host or search prefix of identifier
+	 */
+	private static String getSource(String identifier) {
+		try {
+			URI uri = new URI(identifier);
+			if (uri.getHost() != null) {
+				return uri.getHost();
+			}
+			return uri.getScheme() == null ? "" : uri.getScheme();
+		} catch (URISyntaxException e) {
+			int prefixEnd = identifier.indexOf(':');
+			return prefixEnd > 0 ? identifier.substring(0, prefixEnd) : "";
+		}
+	}
+
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> params = new HashMap<>();
+		if (query != null) {
+			for (String param : query.split("&")) {
+				int separatorIndex = param.indexOf('=');
+				if (separatorIndex > 0) {
+					params.putIfAbsent(param.substring(0, separatorIndex), param.substring(separatorIndex + 1));
+				}
+			}
+		}
+		return params;
+	}
+
+	public AudioPlayerManager getPlayerManager() {
+		return playerManager;
+	}
+
+	public BotLoadingCache<String, BotLoadResult> getCache() {
+		return cache;
+	}
+
+	public BotLoadingCache<String, BotLoadResult> getPrefetchCache() {
+		return prefetchCache;
+	}
+
+	/**
+	 * Stops manager threads (called by spring on context close)
+	 */
+	public void shutdown() {
+		playerManager.shutdown();
+	}
+}
@@ -0,0 +1,153 @@
+package io.github.foloke.spring.commands;
+
+import discord4j.discordjson.json.ApplicationCommandRequest;
+import discord4j.rest.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Registers application commands with one bulk overwrite per scope. Fingerprint (hash) of every registered command
+ * set is stored locally, unchanged sets are not sent at all.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class BotCommandsRegistrar {
+	private static final String GLOBAL_SCOPE = "global";
+	private static final String GUILD_SCOPE_PREFIX = "guild.";
+	private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+	private final Logger log = LoggerFactory.getLogger(BotCommandsRegistrar.class);
+	private final BotChatCommandsService botChatCommandsService;
+	private final Properties scopeToFingerprint = new Properties();
+	/**
+	 * File to keep registered commands fingerprints, empty to register on every startup
+	 */
+	@Value("${commandsFingerprintPath}")
+	private String commandsFingerprintPath;
+	/**
+	 * Guilds registered at the same time by /init
+	 */
+	@Value("${commandsRegisterConcurrency}")
+	private int commandsRegisterConcurrency;
+	private boolean fingerprintsLoaded;
+
+	@Autowired
+	public BotCommandsRegistrar(BotChatCommandsService botChatCommandsService) {
+		this.botChatCommandsService = botChatCommandsService;
+	}
+
+	/**
+	 * Registers global commands if they changed since the last registration
+	 */
+	public void registerGlobalCommands(RestClient restClient) {
+		List<ApplicationCommandRequest> commandRequests = botChatCommandsService.getGlobalApplicationCommandRequestList();
+		String fingerprint = getFingerprint(commandRequests);
+		if (fingerprint.equals(getStoredFingerprint(GLOBAL_SCOPE))) {
+			log.info("Global commands are not changed, registration skipped");
+			return;
+		}
+		restClient.getApplicationId()
+			.flatMapMany(applicationId -> restClient.getApplicationService()
+				.bulkOverwriteGlobalApplicationCommand(applicationId, commandRequests)
+			)
+			.then()
+			.block();
+		log.info("Global commands registered");
+		storeFingerprint(GLOBAL_SCOPE, fingerprint);
+	}
+
+	/**
+	 * Overwrites commands of guilds, at most {@code commandsRegisterConcurrency} guilds at a time
+	 *
+	 * @param force register even if fingerprint matches (commands could be deleted on Discord side)
+	 * @return registered guilds count
+	 */
+	public long registerGuildCommands(RestClient restClient, Collection<Long> guildIds, boolean force) {
+		List<ApplicationCommandRequest> commandRequests = botChatCommandsService.getLocalApplicationCommandRequestList();
+		String fingerprint = getFingerprint(commandRequests);
+		Long registeredCount = restClient.getApplicationId()
+			.flatMapMany(applicationId -> Flux.fromIterable(guildIds)
+				.filter(guildId -> force || !fingerprint.equals(getStoredFingerprint(GUILD_SCOPE_PREFIX + guildId)))
+				.flatMap(guildId -> {
+					log.info(String.format("Started to register commands for guild: %d", guildId));
+					return restClient.getApplicationService()
+						.bulkOverwriteGuildApplicationCommand(applicationId, guildId, commandRequests)
+						.then(Mono.fromRunnable(() -> storeFingerprint(GUILD_SCOPE_PREFIX + guildId, fingerprint)))
+						.thenReturn(guildId);
+				}, commandsRegisterConcurrency)
+			)
+			.count()
+			.block();
+		return registeredCount == null ? 0 : registeredCount;
+	}
+
+	/**
+	 * Hash of the command set, independent of the commands order
+	 */
+	private static String getFingerprint(List<ApplicationCommandRequest> commandRequests) {
+		String commandsString = commandRequests.stream()
+			.sorted(Comparator.comparing(ApplicationCommandRequest::name))
+			.map(ApplicationCommandRequest::toString)
+			.collect(Collectors.joining("\n"));
+		try {
+			byte[] hash = MessageDigest.getInstance(FINGERPRINT_ALGORITHM)
+				.digest(commandsString.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hashString = new StringBuilder();
+			for (byte hashByte : hash) {
+				hashString.append(String.format("%02x", hashByte));
+			}
+			return hashString.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private synchronized String getStoredFingerprint(String scope) {
+		if (!fingerprintsLoaded && !commandsFingerprintPath.isEmpty()) {
+			Path path = Paths.get(commandsFingerprintPath);
+			if (Files.exists(path)) {
+				try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+					scopeToFingerprint.load(reader);
+				} catch (IOException e) {
+					log.warn("Commands fingerprints are not loaded", e);
+				}
+			}
+		}
+		fingerprintsLoaded = true;
+		return scopeToFingerprint.getProperty(scope, "");
+	}
+
+	private synchronized void storeFingerprint(String scope, String fingerprint) {
+		getStoredFingerprint(scope);
+		scopeToFingerprint.setProperty(scope, fingerprint);
+		if (commandsFingerprintPath.isEmpty()) {
+			return;
+		}
+		try (Writer writer = Files.newBufferedWriter(Paths.get(commandsFingerprintPath), StandardCharsets.UTF_8)) {
+			scopeToFingerprint.store(writer, null);
+		} catch (IOException e) {
+			log.warn("Commands fingerprints are not saved", e);
+		}
+	}
+}
@@ -2,13 +2,14 @@ package io.github.foloke.spring.commands.common;
 
 import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
-import discord4j.core.object.DiscordObject;
-import discord4j.core.object.entity.Message;
+import discord4j.core.object.command.ApplicationCommandOption.Type;
 import discord4j.core.spec.EmbedCreateSpec;
-import discord4j.discordjson.Id;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
 import discord4j.rest.entity.RestChannel;
+import io.github.foloke.spring.services.BotCleanupJobs;
+import io.github.foloke.spring.services.BotCleanupJobs.CleanupJob;
 import io.github.foloke.spring.services.localization.BotLocalization;
+import io.github.foloke.utils.BotReplyEditor;
 import io.github.foloke.utils.commands.BotChatCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,14 +21,10 @@ import org.springframework.stereotype.Component;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Optional;
 
 /**
- * Clean all bot messages from chat
+ * Clean all bot messages from chat, cleanup of the channel can be cancelled or checked
  *
  * @author Марченко Дмитрий
  * @since 06.01.2024
@@ -36,93 +33,91 @@ import java.util.concurrent.locks.ReentrantLock;
 @Qualifier("local")
 public class BotCleanChatCommand implements BotChatCommand {
 	private static final int TIME_RUN_DELTA = 5000;
-	private final Logger log = LoggerFactory.getLogger(BotCleanChatCommand.class);
+	private static final String START_SUBCOMMAND_NAME = "start";
+	private static final String CANCEL_SUBCOMMAND_NAME = "cancel";
+	private static final String STATUS_SUBCOMMAND_NAME = "status";
+	private final Logger log = LoggerFactory.getLogger(getClass().getName());
 	private final BotLocalization localization;
+	private final BotCleanupJobs cleanupJobs;
 
 	@Value("${cleaningImageUrl}")
 	private String cleaningImageUrl;
 
 	@Autowired
-	public BotCleanChatCommand(BotLocalization playerLocalization) {
+	public BotCleanChatCommand(BotLocalization playerLocalization, BotCleanupJobs cleanupJobs) {
 		localization = playerLocalization;
+		this.cleanupJobs = cleanupJobs;
 	}
 
-	private final Lock messageDeleteMutex = new ReentrantLock();
-	private final Executor threadPoolExecutor = new ScheduledThreadPoolExecutor(10);
-
 	@Override
 	public void execute(ChatInputInteractionEvent event) {
-		threadPoolExecutor.execute(() -> {
-			if (messageDeleteMutex.tryLock()) {
-				log.info("locked");
-				cleanMessages(event, cleaningImageUrl);
-				log.info("unlocked");
-				messageDeleteMutex.unlock();
-			} else {
-				event.editReply(localization.getMessage("delete_operation_in_use")).block();
-			}
-		});
+		Snowflake channelId = event.getInteraction().getChannelId();
+		Optional<Snowflake> guildId = event.getInteraction().getGuildId();
+		if (!guildId.isPresent()) {
+			return;
+		}
+		if (event.getOption(CANCEL_SUBCOMMAND_NAME).isPresent()) {
+			event.editReply(cleanupJobs.cancel(channelId)
+				.map(job -> localization.getMessage("cleanup_cancelled_message", job.getDeleted()))
+				.orElseGet(() -> localization.getMessage("cleanup_not_running"))
+			).block();
+		} else if (event.getOption(STATUS_SUBCOMMAND_NAME).isPresent()) {
+			event.editReply(cleanupJobs.getJob(channelId)
+				.map(job -> getStatusMessage(guildId.get(), job))
+				.orElseGet(() -> localization.getMessage("cleanup_not_running"))
+			).block();
+		} else {
+			startCleanup(event, guildId.get(), channelId);
+		}
 	}
 
-	private void cleanMessages(ChatInputInteractionEvent event, String cleaningImageUrl) {
-		try {
-			Instant commandRunTime = Instant.now().minusMillis(TIME_RUN_DELTA);
-			log.info(String.format("Started deletion thread %s", Thread.currentThread()));
-			EmbedCreateSpec embedCreateSpec = EmbedCreateSpec.create();
-			if (!cleaningImageUrl.isEmpty()) {
-				embedCreateSpec.withImage(cleaningImageUrl);
-			}
-			event.editReply()
-				.withEmbeds(embedCreateSpec.withTitle(localization.getMessage("searching_messages_to_delete_message")))
-				.block();
-			AtomicInteger counter = new AtomicInteger();
-			Snowflake channelId = event.getInteraction().getChannelId();
-			event.getInteraction()
-				.getGuildId()
-				.flatMap(guildId -> event.getInteraction().getGuild().blockOptional())
-				.ifPresent(guild -> {
-					Snowflake botUserId = guild.getClient().getSelfId();
-					guild.getChannelById(channelId).blockOptional().ifPresent(guildChannel -> {
-						RestChannel restChannel = guildChannel.getRestChannel();
-						List<Message> messages = findMessagesToDelete(guild, restChannel, botUserId, commandRunTime);
-						if (messages != null) {
-							int size = messages.size();
-							log.info(String.format("Deleteing %s messages", size));
-							counter.set(size);
-							deleteMessages(messages);
-						}
-					});
-				});
-			log.info("Deletion completed");
-			event.editReply()
-				.withEmbeds(EmbedCreateSpec.create()
-					.withImage(cleaningImageUrl)
-					.withTitle(localization.getMessage("found_and_deleted_message", counter.get())))
-				.block();
-		} catch (Exception e) {
-			log.error("Mesage cleananing error", e);
+	/**
+	 * Every reply edit goes through one ordered editor, so progress can't overwrite the result. Job callbacks run out
+	 * of the guild dispatcher, so their messages are taken for the guild explicitly.
+	 */
+	private void startCleanup(ChatInputInteractionEvent event, Snowflake guildId, Snowflake channelId) {
+		EmbedCreateSpec embedCreateSpec = cleaningImageUrl.isEmpty()
+			? EmbedCreateSpec.create()
+			: EmbedCreateSpec.create().withImage(cleaningImageUrl);
+		RestChannel restChannel = event.getClient().getRestClient().getChannelById(channelId);
+		BotReplyEditor replyEditor = new BotReplyEditor(event);
+		replyEditor.editProgressEmbed(
+			embedCreateSpec.withTitle(localization.getMessage("searching_messages_to_delete_message"))
+		);
+		boolean started = cleanupJobs.start(
+			restChannel,
+			event.getClient().getSelfId(),
+			Instant.now().minusMillis(TIME_RUN_DELTA),
+			job -> replyEditor.editProgressEmbed(embedCreateSpec.withTitle(getStatusMessage(guildId, job))),
+			job -> showResult(replyEditor, restChannel, embedCreateSpec.withTitle(
+				localization.getGuildMessage(guildId.asLong(), "found_and_deleted_message", job.getDeleted())
+			))
+		).isPresent();
+		if (!started) {
+			replyEditor.edit(localization.getMessage("delete_operation_in_use"));
 		}
 	}
 
-	private void deleteMessages(List<Message> messages) {
-		// NO BULK DELETE CUZ FUCKING DISCORD API 14 days limit
-		messages.forEach(message -> {
-			message.delete().block();
-			log.info(String.format("Deleted: %s %s", message.getId().asString(), message.getTimestamp()));
+	/**
+	 * Result that can't be shown in the reply (edit failed or interaction token expired) is sent to the channel
+	 */
+	private void showResult(BotReplyEditor replyEditor, RestChannel restChannel, EmbedCreateSpec embed) {
+		replyEditor.editEmbed(embed).thenAccept(edited -> {
+			if (!edited) {
+				restChannel.createMessage(embed.asRequest())
+					.subscribe(null, throwable -> log.error("Cleanup result is not sent", throwable));
+			}
 		});
 	}
 
-	private List<Message> findMessagesToDelete(
-		DiscordObject guild,
-		RestChannel restChannel,
-		Snowflake botUserId,
-		Instant commandRunTime
-	) {
-		return restChannel.getMessagesBefore(Snowflake.of(commandRunTime))
-			.filter(messageData -> messageData.author().id().equals(Id.of(botUserId.asString())))
-			.map(messageData -> new Message(guild.getClient(), messageData))
-			.collectList()
-			.block();
+	private String getStatusMessage(Snowflake guildId, CleanupJob job) {
+		return localization.getGuildMessage(
+			guildId.asLong(),
+			"cleanup_status_message",
+			job.getScanned(),
+			job.getDeleted(),
+			job.getDeletedPerSecond()
+		);
 	}
 
 	@Override
@@ -137,6 +132,18 @@ public class BotCleanChatCommand implements BotChatCommand {
 
 	@Override
 	public List<ApplicationCommandOptionData> getOptions() {
-		return new ArrayList<>();
+		List<ApplicationCommandOptionData> options = new ArrayList<>();
+		options.add(createSubcommand(START_SUBCOMMAND_NAME, "clean_start_description"));
+		options.add(createSubcommand(CANCEL_SUBCOMMAND_NAME, "clean_cancel_description"));
+		options.add(createSubcommand(STATUS_SUBCOMMAND_NAME, "clean_status_description"));
+		return options;
+	}
+
+	private ApplicationCommandOptionData createSubcommand(String name, String descriptionKey) {
+		return ApplicationCommandOptionData.builder()
+			.name(name)
+			.description(localization.getMessage(descriptionKey))
+			.type(Type.SUB_COMMAND.getValue())
+			.build();
 	}
 }
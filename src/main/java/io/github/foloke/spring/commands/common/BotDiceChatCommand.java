@@ -5,20 +5,26 @@ import discord4j.core.object.command.ApplicationCommandInteractionOption;
 import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
 import discord4j.core.object.command.ApplicationCommandOption.Type;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
+import io.github.foloke.dice.BotDiceExpression;
+import io.github.foloke.dice.BotDiceExpression.DetailedRoll;
+import io.github.foloke.dice.BotDiceStatistics;
+import io.github.foloke.dice.DiceExpressionException;
 import io.github.foloke.spring.services.localization.BotLocalization;
 import io.github.foloke.utils.commands.BotChatCommand;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.IntStream;
 
 /**
- * Dice roll chat command
+ * Dice roll chat command, rolls plain dice of one type or a dice expression, in statistics mode shows expression
+ * totals distribution
  *
  * @author Марченко Дмитрий
  * @since 06.01.2024
@@ -26,17 +32,30 @@ import java.util.stream.IntStream;
 @Component
 @Qualifier("local")
 public class BotDiceChatCommand implements BotChatCommand {
-
-	private final Random random = new Random();
+	private static final ThreadLocal<SplittableRandom> RANDOM = ThreadLocal.withInitial(SplittableRandom::new);
 	private static final String D_OPTION_NAME = "d";
 	private static final String COUNT_OPTION_NAME = "x";
 	private static final String FOR_OPTION_NAME = "for";
+	private static final String EXPRESSION_OPTION_NAME = "expression";
+	private static final String STATS_OPTION_NAME = "stats";
 	private static final long DEFAULT_D_VALUE = 6L;
 	private static final long DEFAULT_COUNT_VALUE = 1L;
 
-	private static final double MAX_D_VALUE = Integer.MAX_VALUE;
+	private static final double MAX_D_VALUE = BotDiceExpression.MAX_SIDES;
 	private static final double MAX_COUNT_VALUE = 10;
+	private static final int MESSAGE_MAX_LENGTH = 2000;
+	/**
+	 * Dice rolled by one statistics request, limits rolls of big expressions
+	 */
+	private static final long STATISTICS_DICE_BUDGET = 50_000_000L;
+	private static final int STATISTICS_MIN_ROLLS = 10_000;
+	private static final int STATISTICS_MAX_ROWS = 40;
+	private static final int STATISTICS_MIN_ROWS = 5;
+	private static final int STATISTICS_BAR_LENGTH = 20;
+	private static final int STATISTICS_MIN_BAR_LENGTH = 5;
 	private final BotLocalization localization;
+	@Value("${diceStatisticsRolls}")
+	private int diceStatisticsRolls;
 
 	@Autowired
 	public BotDiceChatCommand(BotLocalization playerLocalization) {
@@ -56,14 +75,41 @@ public class BotDiceChatCommand implements BotChatCommand {
 		Optional<String> message = event.getOption(FOR_OPTION_NAME)
 			.flatMap(ApplicationCommandInteractionOption::getValue)
 			.map(ApplicationCommandInteractionOptionValue::asString);
-		StringBuilder replyStringBuilder = new StringBuilder(
-			localization.getMessage("d_roll", d, count)
+		Optional<String> expressionText = event.getOption(EXPRESSION_OPTION_NAME)
+			.flatMap(ApplicationCommandInteractionOption::getValue)
+			.map(ApplicationCommandInteractionOptionValue::asString);
+		boolean stats = event.getOption(STATS_OPTION_NAME)
+			.flatMap(ApplicationCommandInteractionOption::getValue)
+			.map(ApplicationCommandInteractionOptionValue::asBoolean)
+			.orElse(false);
+		BotDiceExpression expression;
+		try {
+			expression = BotDiceExpression.parse(expressionText.orElse(count + "d" + d));
+		} catch (DiceExpressionException e) {
+			event.editReply(localization.getMessage("dice_expression_error", e.getMessage())).block();
+			return;
+		}
+		StringBuilder replyStringBuilder = new StringBuilder(expressionText.isPresent()
+			? expression.toString()
+			: localization.getMessage("d_roll", d, count)
 		);
 		message.ifPresent(m -> replyStringBuilder.append(" ").append(m));
 		replyStringBuilder.append(":\n");
 
 		String caption = replyStringBuilder.toString();
 		event.editReply(String.join(caption, localization.getMessage("rolling_message"))).block();
+		if (stats) {
+			appendStatistics(replyStringBuilder, expression);
+		} else if (!expressionText.isPresent()) {
+			appendPlainDice(replyStringBuilder, d, count);
+		} else {
+			appendDetailedRolls(replyStringBuilder, expression);
+		}
+		event.editReply(replyStringBuilder.toString()).block();
+	}
+
+	private void appendPlainDice(StringBuilder replyStringBuilder, int d, int count) {
+		SplittableRandom random = RANDOM.get();
 		IntStream.rangeClosed(1, count).forEach(index -> {
 			int diceValue = 1 + random.nextInt(d);
 			String critReply = diceValue == d ? " " + localization.getMessage("critical") : "";
@@ -71,7 +117,76 @@ public class BotDiceChatCommand implements BotChatCommand {
 
 			replyStringBuilder.append(index).append(": \t\t").append(diceValue).append(diceReply).append("\n");
 		});
-		event.editReply(replyStringBuilder.toString()).block();
+	}
+
+	/**
+	 * Every repeat with its dice, only totals if the dice don't fit into the message
+	 */
+	private void appendDetailedRolls(StringBuilder replyStringBuilder, BotDiceExpression expression) {
+		List<DetailedRoll> rolls = new ArrayList<>();
+		for (int i = 0; i < expression.getRepeats(); i++) {
+			rolls.add(expression.rollDetailed(RANDOM.get()));
+		}
+		StringBuilder detailedStringBuilder = new StringBuilder();
+		StringBuilder totalsStringBuilder = new StringBuilder();
+		IntStream.range(0, rolls.size()).forEach(index -> {
+			DetailedRoll roll = rolls.get(index);
+			detailedStringBuilder.append(index + 1).append(": ").append(String.join(" ", roll.getTermDescriptions()))
+				.append(" = **").append(roll.getTotal()).append("**\n");
+			totalsStringBuilder.append(index + 1).append(": \t\t**").append(roll.getTotal()).append("**\n");
+		});
+		boolean fits = replyStringBuilder.length() + detailedStringBuilder.length() <= MESSAGE_MAX_LENGTH;
+		replyStringBuilder.append(fits ? detailedStringBuilder : totalsStringBuilder);
+	}
+
+	/**
+	 * Histogram is shrunk (fewer rows, shorter bars) until the reply fits into the message, the caption is omitted if
+	 * even the smallest histogram doesn't fit with it
+	 */
+	private void appendStatistics(StringBuilder replyStringBuilder, BotDiceExpression expression) {
+		long budgetRolls = STATISTICS_DICE_BUDGET / Math.max(1, expression.getDiceCount());
+		int rolls = (int) Math.min(diceStatisticsRolls, Math.max(STATISTICS_MIN_ROLLS, budgetRolls));
+		BotDiceStatistics statistics = BotDiceStatistics.collect(expression, rolls, RANDOM.get());
+		String summary = localization.getMessage(
+			"dice_statistics_message",
+			Long.toString(statistics.getRolls()),
+			Long.toString(statistics.getElapsedMillis()),
+			String.format("%.2f", statistics.getMean()),
+			String.format("%.2f", statistics.getStandardDeviation())
+		);
+		int maxRows = STATISTICS_MAX_ROWS;
+		int barLength = STATISTICS_BAR_LENGTH;
+		String histogram = formatHistogram(statistics, maxRows, barLength);
+		while (replyStringBuilder.length() + summary.length() + histogram.length() > MESSAGE_MAX_LENGTH
+			&& maxRows > STATISTICS_MIN_ROWS) {
+			maxRows = Math.max(STATISTICS_MIN_ROWS, maxRows / 2);
+			barLength = Math.max(STATISTICS_MIN_BAR_LENGTH, barLength / 2);
+			histogram = formatHistogram(statistics, maxRows, barLength);
+		}
+		if (replyStringBuilder.length() + summary.length() + histogram.length() > MESSAGE_MAX_LENGTH) {
+			replyStringBuilder.setLength(0);
+		}
+		replyStringBuilder.append(summary).append(histogram);
+	}
+
+	private static String formatHistogram(BotDiceStatistics statistics, int maxRows, int barLength) {
+		StringBuilder histogramStringBuilder = new StringBuilder("\n```\n");
+		List<BotDiceStatistics.Row> rows = statistics.getRows(maxRows);
+		double maxShare = rows.stream().mapToDouble(BotDiceStatistics.Row::getShare).max().orElse(1);
+		for (BotDiceStatistics.Row row : rows) {
+			// first row of exploding subtracted dice has no lower bound
+			String range = row.isUnderflow() || row.getFrom() == row.getTo()
+				? (row.isUnderflow() ? "<=" : "") + row.getTo()
+				: row.getFrom() + "-" + row.getTo();
+			String bar = "#".repeat((int) Math.round(row.getShare() / maxShare * barLength));
+			histogramStringBuilder.append(String.format(
+				"%-15s %7.3f%% %s\n",
+				row.isOverflow() ? range + "+" : range,
+				row.getShare() * 100,
+				bar
+			));
+		}
+		return histogramStringBuilder.append("```").toString();
 	}
 
 	@Override
@@ -110,6 +225,20 @@ public class BotDiceChatCommand implements BotChatCommand {
 			.required(false)
 			.build()
 		);
+		options.add(ApplicationCommandOptionData.builder()
+			.name(EXPRESSION_OPTION_NAME)
+			.description(localization.getMessage("dice_expression_description"))
+			.type(Type.STRING.getValue())
+			.required(false)
+			.build()
+		);
+		options.add(ApplicationCommandOptionData.builder()
+			.name(STATS_OPTION_NAME)
+			.description(localization.getMessage("dice_stats_description"))
+			.type(Type.BOOLEAN.getValue())
+			.required(false)
+			.build()
+		);
 		return options;
 	}
 }
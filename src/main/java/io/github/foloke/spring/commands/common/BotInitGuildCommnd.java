@@ -1,10 +1,12 @@
 package io.github.foloke.spring.commands.common;
 
-import discord4j.core.GatewayDiscordClient;
+import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
+import discord4j.core.object.command.ApplicationCommandOption.Type;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
-import discord4j.rest.service.ApplicationService;
-import io.github.foloke.spring.commands.BotChatCommandsService;
+import io.github.foloke.spring.commands.BotCommandsRegistrar;
 import io.github.foloke.spring.services.localization.BotLocalization;
 import io.github.foloke.utils.commands.BotChatCommand;
 import org.slf4j.Logger;
@@ -25,19 +27,20 @@ import java.util.List;
 @Component
 @Qualifier("global")
 public class BotInitGuildCommnd implements BotChatCommand {
-	private static final String COMMAND_REGISTER_LOG_FORMAT = "Started to register command: %s, for guild: %d";
-	private static final String COMMANDS_REGISTER_LOG_FORMAT = "Started to register commands for guild: %d";
+	private static final String ALL_GUILDS_OPTION_NAME = "all";
+	private static final String COMMANDS_REGISTER_LOG_FORMAT =
+		"Commands registered for %d of %d guilds, others are up to date";
 	private final Logger log = LoggerFactory.getLogger(getClass().getName());
 
 	private final BotLocalization playerLocalization;
-	private final BotChatCommandsService botChatCommandsService;
+	private final BotCommandsRegistrar commandsRegistrar;
 
 	public BotInitGuildCommnd(
 		BotLocalization playerLocalization,
-		@Lazy BotChatCommandsService botChatCommandsService
+		@Lazy BotCommandsRegistrar commandsRegistrar
 	) {
 		this.playerLocalization = playerLocalization;
-		this.botChatCommandsService = botChatCommandsService;
+		this.commandsRegistrar = commandsRegistrar;
 	}
 
 	@Override
@@ -47,43 +50,70 @@ public class BotInitGuildCommnd implements BotChatCommand {
 
 	@Override
 	public List<ApplicationCommandOptionData> getOptions() {
-		return Collections.emptyList();
+		return Collections.singletonList(ApplicationCommandOptionData.builder()
+			.name(ALL_GUILDS_OPTION_NAME)
+			.description(playerLocalization.getMessage("all_guilds_description"))
+			.type(Type.BOOLEAN.getValue())
+			.required(false)
+			.build()
+		);
 	}
 
+	/**
+	 * Registers commands for the current guild, or for every guild of the bot (only changed command sets are sent)
+	 */
 	@Override
 	public void execute(ChatInputInteractionEvent event) {
+		boolean allGuilds = event.getOption(ALL_GUILDS_OPTION_NAME)
+			.flatMap(ApplicationCommandInteractionOption::getValue)
+			.map(ApplicationCommandInteractionOptionValue::asBoolean)
+			.orElse(false);
+		if (allGuilds && !isApplicationOwner(event)) {
+			event.editReply(playerLocalization.getMessage("all_guilds_owner_only")).block();
+			return;
+		}
 		try {
-			event.getInteraction()
-				.getGuildId()
-				.ifPresent(guildId -> registerGuildCommands(event.getClient(), guildId.asLong()));
+			if (allGuilds) {
+				List<Long> guildIds = event.getClient().getGuilds()
+					.map(guild -> guild.getId().asLong())
+					.collectList()
+					.blockOptional()
+					.orElseGet(Collections::emptyList);
+				long registeredCount =
+					commandsRegistrar.registerGuildCommands(event.getClient().getRestClient(), guildIds, false);
+				log.info(String.format(COMMANDS_REGISTER_LOG_FORMAT, registeredCount, guildIds.size()));
+			} else {
+				event.getInteraction().getGuildId().ifPresent(guildId -> commandsRegistrar.registerGuildCommands(
+					event.getClient().getRestClient(),
+					Collections.singletonList(guildId.asLong()),
+					true
+				));
+			}
 		} catch (Exception e) {
 			log.error("Error while registering guild commands", e);
 			event.editReply(playerLocalization.getMessage("guild_commands_register_error", e.getMessage())).block();
+			return;
 		}
 		log.info("commands registered");
 		event.editReply(playerLocalization.getMessage("guild_commands_registered")).block();
 	}
 
+	/**
+	 * Registration for every guild of the bot is allowed only to the bot application owner
+	 */
+	private static boolean isApplicationOwner(ChatInputInteractionEvent event) {
+		Snowflake userId = event.getInteraction().getUser().getId();
+		return event.getClient().getApplicationInfo()
+			.map(applicationInfo -> applicationInfo.getOwnerId().equals(userId))
+			.blockOptional()
+			.orElse(false);
+	}
+
 	@Override
 	public String getCommandName() {
 		return "init";
 	}
 
-	/**
-	 * Registers Commands for spectifed guild
-	 */
-	public void registerGuildCommands(GatewayDiscordClient discordClient, long guildId) {
-		log.info(String.format(COMMANDS_REGISTER_LOG_FORMAT, guildId));
-		Long applicationId = discordClient.getRestClient().getApplicationId().block();
-		ApplicationService applicationService = discordClient.getRestClient().getApplicationService();
-		if (applicationId != null) {
-			botChatCommandsService.getLocalApplicationCommandRequestList().forEach(commandRequest -> {
-				log.info(String.format(COMMAND_REGISTER_LOG_FORMAT, commandRequest.name(), guildId));
-				applicationService.createGuildApplicationCommand(applicationId, guildId, commandRequest).block();
-			});
-		}
-	}
-
 	@Override
 	public boolean isEphemeral() {
 		return true;
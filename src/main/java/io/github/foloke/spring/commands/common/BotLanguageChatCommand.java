@@ -0,0 +1,75 @@
+package io.github.foloke.spring.commands.common;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
+import discord4j.core.object.command.ApplicationCommandOption.Type;
+import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
+import discord4j.discordjson.json.ApplicationCommandOptionData;
+import io.github.foloke.spring.services.localization.BotGuildLocales;
+import io.github.foloke.spring.services.localization.BotLocalization;
+import io.github.foloke.utils.commands.BotChatCommand;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sets bot messages language of the guild
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+@Qualifier("local")
+public class BotLanguageChatCommand implements BotChatCommand {
+	private static final String LOCALE_OPTION_NAME = "locale";
+	private final BotLocalization localization;
+	private final BotGuildLocales guildLocales;
+
+	@Autowired
+	public BotLanguageChatCommand(BotLocalization playerLocalization, BotGuildLocales guildLocales) {
+		localization = playerLocalization;
+		this.guildLocales = guildLocales;
+	}
+
+	@Override
+	public void execute(ChatInputInteractionEvent event) {
+		event.getOption(LOCALE_OPTION_NAME)
+			.flatMap(ApplicationCommandInteractionOption::getValue)
+			.map(ApplicationCommandInteractionOptionValue::asString)
+			.filter(locale -> localization.getSupportedLocales().contains(locale))
+			.ifPresent(locale -> event.getInteraction().getGuildId().ifPresent(guildId -> {
+				guildLocales.setLocale(guildId.asLong(), locale);
+				event.editReply(localization.getGuildMessage(guildId.asLong(), "language_message", locale)).block();
+			}));
+	}
+
+	@Override
+	public String getDescription() {
+		return localization.getMessage("language_description");
+	}
+
+	@Override
+	public String getCommandName() {
+		return "language";
+	}
+
+	@Override
+	public List<ApplicationCommandOptionData> getOptions() {
+		return Collections.singletonList(ApplicationCommandOptionData.builder()
+			.name(LOCALE_OPTION_NAME)
+			.type(Type.STRING.getValue())
+			.description(localization.getMessage("language_locale_description"))
+			.choices(localization.getSupportedLocales().stream()
+				.map(locale -> ApplicationCommandOptionChoiceData.builder().name(locale).value(locale).build())
+				.collect(Collectors.toList())
+			)
+			.required(true)
+			.build()
+		);
+	}
+}
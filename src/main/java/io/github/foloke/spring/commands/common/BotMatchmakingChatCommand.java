@@ -1,26 +1,30 @@
 package io.github.foloke.spring.commands.common;
 
-import com.google.common.collect.Lists;
+import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
 import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
 import discord4j.core.object.command.ApplicationCommandOption.Type;
-import discord4j.core.object.entity.Member;
-import discord4j.core.object.entity.channel.VoiceChannel;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
+import io.github.foloke.spring.services.BotMatchmakingRatings;
+import io.github.foloke.spring.services.BotVoiceStateCache;
+import io.github.foloke.spring.services.BotVoiceStateCache.VoiceMember;
 import io.github.foloke.spring.services.localization.BotLocalization;
+import io.github.foloke.utils.BotTeamPartitioner;
 import io.github.foloke.utils.commands.BotChatCommand;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
- * Chat matchmaking command
+ * Chat matchmaking command. Channel members are taken from the voice state cache, teams are balanced by members
+ * ratings (random if there are no ratings).
  *
  * @author Марченко Дмитрий
  * @since 06.01.2024
@@ -28,21 +32,29 @@ import java.util.stream.IntStream;
 @Component
 @Qualifier("local")
 public class BotMatchmakingChatCommand implements BotChatCommand {
+	public static final int DEFAULT_RATING = 1000;
 	private static final String TEAMS_OPTION_NAME = "teams";
 	private static final String LEADERS_OPTION_NAME = "leaders";
+	private static final String CHANNEL_MENTION_FORMAT = "<#%s>";
+	private static final String USER_MENTION_FORMAT = "<@%s>";
 	private static final double MAX_TEAMS_COUNT = 10d;
 	private final BotLocalization localization;
+	private final BotVoiceStateCache voiceStateCache;
+	private final BotMatchmakingRatings ratings;
 
 	@Autowired
-	public BotMatchmakingChatCommand(BotLocalization playerLocalization) {
+	public BotMatchmakingChatCommand(
+		BotLocalization playerLocalization,
+		BotVoiceStateCache voiceStateCache,
+		BotMatchmakingRatings ratings
+	) {
 		localization = playerLocalization;
+		this.voiceStateCache = voiceStateCache;
+		this.ratings = ratings;
 	}
 
 	@Override
 	public void execute(ChatInputInteractionEvent event) {
-		Optional<VoiceChannel> voiceChannelOptional = event.getInteraction().getMember()
-			.map(member -> member.getVoiceState().block()).map(voiceState -> voiceState.getChannel().block());
-
 		int teams = event.getOption(TEAMS_OPTION_NAME)
 			.flatMap(ApplicationCommandInteractionOption::getValue)
 			.map(ApplicationCommandInteractionOptionValue::asLong)
@@ -53,46 +65,46 @@ public class BotMatchmakingChatCommand implements BotChatCommand {
 			.map(ApplicationCommandInteractionOptionValue::asBoolean)
 			.orElse(false);
 
-		voiceChannelOptional.ifPresentOrElse(voiceChannel -> {
-			event.editReply(localization.getMessage("matchmaking_message", voiceChannel.getName())).block();
-
-			List<Member> memberList = Optional.ofNullable(voiceChannel.getVoiceStates().collectList().block())
-				.orElseGet(Collections::emptyList)
-				.stream()
-				.map(state -> state.getMember().block())
-				.filter(member -> !(member == null || member.isBot()))
-				.collect(Collectors.toList());
+		Optional<Snowflake> guildIdOptional = event.getInteraction().getGuildId();
+		Optional<Snowflake> voiceChannelIdOptional = guildIdOptional.flatMap(guildId -> event.getInteraction()
+			.getMember()
+			.flatMap(member -> voiceStateCache.getChannelId(guildId, member.getId()))
+		);
 
+		voiceChannelIdOptional.ifPresentOrElse(voiceChannelId -> {
+			Snowflake guildId = guildIdOptional.orElseThrow();
+			event.editReply(localization.getMessage(
+				"matchmaking_message",
+				String.format(CHANNEL_MENTION_FORMAT, voiceChannelId.asString())
+			)).block();
+
+			List<TeamMember> memberList = new ArrayList<>();
+			voiceStateCache.getChannelMembers(guildId, voiceChannelId).forEach((userId, voiceMember) -> {
+				if (!voiceMember.isBot()) {
+					int rating = ratings.getRating(guildId.asLong(), userId.asLong()).orElse(DEFAULT_RATING);
+					memberList.add(new TeamMember(userId, voiceMember, rating));
+				}
+			});
 			Collections.shuffle(memberList);
-			int membersPerTeam = memberList.size() / teams;
-
-			List<String> teamNameList = IntStream.rangeClosed(1, memberList.size())
-				.boxed()
-				.map(Object::toString)
-				.collect(Collectors.toList());
-			List<List<Member>> teamsList = Lists.partition(memberList, membersPerTeam);
-			Map<String, List<Member>> teamMembersToTeamNameMap = IntStream.range(0, teamsList.size())
-				.boxed()
-				.collect(Collectors.toMap(teamNameList::get, teamsList::get));
+			List<List<TeamMember>> teamsList = BotTeamPartitioner.partition(memberList, member -> member.rating, teams);
 
 			StringBuilder stringBuilder = new StringBuilder(localization.getMessage("teams_message"))
 				.append("\n");
-			teamMembersToTeamNameMap.forEach((teamName, members) -> {
-				stringBuilder.append(teamName).append(":\n");
-				AtomicBoolean leader = new AtomicBoolean(true);
-				members.forEach(member -> {
-					if (leaders && leader.get()) {
+			for (int i = 0; i < teamsList.size(); i++) {
+				stringBuilder.append(i + 1).append(":\n");
+				List<TeamMember> members = teamsList.get(i);
+				for (int j = 0; j < members.size(); j++) {
+					if (leaders && j == 0) {
 						stringBuilder.append(localization.getMessage("team_leader_message"))
-							.append("\t__").append(member.getDisplayName())
+							.append("\t__").append(members.get(j).getDisplayName())
 							.append("__\n").append(localization.getMessage("teammates_message"))
 							.append("\t");
-						leader.set(false);
 					} else {
-						stringBuilder.append("__").append(member.getDisplayName()).append("__\t");
+						stringBuilder.append("__").append(members.get(j).getDisplayName()).append("__\t");
 					}
-				});
+				}
 				stringBuilder.append("\n\n");
-			});
+			}
 
 			event.editReply(stringBuilder.toString()).block();
 		}, () -> event.editReply(localization.getMessage("not_in_the_channel_warning")).block());
@@ -129,4 +141,22 @@ public class BotMatchmakingChatCommand implements BotChatCommand {
 		return optionDataList;
 	}
 
+	private static final class TeamMember {
+		private final Snowflake userId;
+		private final VoiceMember voiceMember;
+		private final int rating;
+
+		private TeamMember(Snowflake userId, VoiceMember voiceMember, int rating) {
+			this.userId = userId;
+			this.voiceMember = voiceMember;
+			this.rating = rating;
+		}
+
+		/**
+		 * Cached name, mention if the name is unknown (Discord shows it as the name)
+		 */
+		private String getDisplayName() {
+			return voiceMember.getDisplayName().orElseGet(() -> String.format(USER_MENTION_FORMAT, userId.asString()));
+		}
+	}
 }
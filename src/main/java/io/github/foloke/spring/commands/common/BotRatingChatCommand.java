@@ -0,0 +1,116 @@
+package io.github.foloke.spring.commands.common;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
+import discord4j.core.object.command.ApplicationCommandOption.Type;
+import discord4j.rest.util.Permission;
+import discord4j.discordjson.json.ApplicationCommandOptionData;
+import io.github.foloke.spring.services.BotMatchmakingRatings;
+import io.github.foloke.spring.services.localization.BotLocalization;
+import io.github.foloke.utils.commands.BotChatCommand;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sets or shows member rating for matchmaking teams balancing, only members who can manage the guild set ratings
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+@Qualifier("local")
+public class BotRatingChatCommand implements BotChatCommand {
+	private static final String USER_OPTION_NAME = "user";
+	private static final String VALUE_OPTION_NAME = "value";
+	private static final String USER_MENTION_FORMAT = "<@%s>";
+	private static final double MAX_RATING_VALUE = 100000;
+	private final BotLocalization localization;
+	private final BotMatchmakingRatings ratings;
+
+	@Autowired
+	public BotRatingChatCommand(BotLocalization playerLocalization, BotMatchmakingRatings ratings) {
+		localization = playerLocalization;
+		this.ratings = ratings;
+	}
+
+	@Override
+	public void execute(ChatInputInteractionEvent event) {
+		Optional<Snowflake> userIdOptional = event.getOption(USER_OPTION_NAME)
+			.flatMap(ApplicationCommandInteractionOption::getValue)
+			.map(ApplicationCommandInteractionOptionValue::asSnowflake);
+		Optional<Integer> value = event.getOption(VALUE_OPTION_NAME)
+			.flatMap(ApplicationCommandInteractionOption::getValue)
+			.map(ApplicationCommandInteractionOptionValue::asLong)
+			.map(Long::intValue);
+		if (value.isPresent() && !canManageGuild(event)) {
+			event.editReply(localization.getMessage("rating_manage_guild_only")).block();
+			return;
+		}
+		event.getInteraction().getGuildId().ifPresent(guildId -> userIdOptional.ifPresent(userId -> {
+			value.ifPresent(rating -> ratings.setRating(guildId.asLong(), userId.asLong(), rating));
+			int rating = ratings.getRating(guildId.asLong(), userId.asLong())
+				.orElse(BotMatchmakingChatCommand.DEFAULT_RATING);
+			event.editReply(localization.getMessage(
+				"rating_message",
+				String.format(USER_MENTION_FORMAT, userId.asString()),
+				rating
+			)).block();
+		}));
+	}
+
+	/**
+	 * Ratings are set only by members with the Manage Server permission (administrators and the guild owner have it)
+	 */
+	private static boolean canManageGuild(ChatInputInteractionEvent event) {
+		return event.getInteraction().getMember()
+			.flatMap(member -> member.getBasePermissions()
+				.map(permissions -> permissions.contains(Permission.MANAGE_GUILD))
+				.blockOptional()
+			)
+			.orElse(false);
+	}
+
+	@Override
+	public String getDescription() {
+		return localization.getMessage("rating_description");
+	}
+
+	@Override
+	public String getCommandName() {
+		return "rating";
+	}
+
+	@Override
+	public List<ApplicationCommandOptionData> getOptions() {
+		List<ApplicationCommandOptionData> optionDataList = new ArrayList<>();
+		optionDataList.add(ApplicationCommandOptionData.builder()
+			.name(USER_OPTION_NAME)
+			.type(Type.USER.getValue())
+			.description(localization.getMessage("rating_user_description"))
+			.required(true)
+			.build()
+		);
+		optionDataList.add(ApplicationCommandOptionData.builder()
+			.name(VALUE_OPTION_NAME)
+			.type(Type.INTEGER.getValue())
+			.minValue(0d)
+			.maxValue(MAX_RATING_VALUE)
+			.description(localization.getMessage("rating_value_description"))
+			.required(false)
+			.build()
+		);
+		return optionDataList;
+	}
+
+	@Override
+	public boolean isEphemeral() {
+		return true;
+	}
+}
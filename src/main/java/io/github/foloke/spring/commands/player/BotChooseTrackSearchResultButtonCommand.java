@@ -42,10 +42,12 @@ public class BotChooseTrackSearchResultButtonCommand implements BotButtonCommand
 			.ifPresent(tarckId -> {
 				botPlayerService.tryCreateMessage(event);
 				try {
-					event.reply(botPlayerService.connectAndAddToQueue(event, tarckId)).withEphemeral(true).block();
+					event.createFollowup(botPlayerService.connectAndAddToQueue(event, tarckId))
+						.withEphemeral(true)
+						.block();
 				} catch (AddToQueueException e) {
 					String errorMessage = localization.getMessage("track_add_error_message");
-					event.reply(errorMessage).withEphemeral(true).block();
+					event.createFollowup(errorMessage).withEphemeral(true).block();
 					log.error(errorMessage, e);
 				}
 			});
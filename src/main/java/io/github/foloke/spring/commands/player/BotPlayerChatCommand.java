@@ -43,7 +43,7 @@ public class BotPlayerChatCommand implements BotChatCommand {
 			service.connect(event);
 			event.editReply(localization.getMessage("player_created_message")).block();
 		} else {
-			event.editReply(service.connectAndAddToQueue(event, link)).block();
+			service.connectAndAddToQueueAsync(event, Collections.singletonList(link));
 		}
 	}
 
@@ -1,9 +1,12 @@
 package io.github.foloke.spring.commands.player;
 
+import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
 import discord4j.core.object.command.ApplicationCommandOption.Type;
+import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
 import io.github.foloke.spring.services.BotPlayerService;
+import io.github.foloke.spring.services.BotTitleIndex;
 import io.github.foloke.spring.services.localization.BotLocalization;
 import io.github.foloke.utils.commands.BotChatCommand;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,29 +28,44 @@ public class BotPlayerQueueChatCommand implements BotChatCommand {
 	public static final String LINK_OPTION_NAME = "link";
 	private final BotPlayerService service;
 	private final BotLocalization localization;
+	private final BotTitleIndex titleIndex;
 
 	@Autowired
-	public BotPlayerQueueChatCommand(BotPlayerService botPlayerService, BotLocalization playerLocalization) {
+	public BotPlayerQueueChatCommand(
+		BotPlayerService botPlayerService,
+		BotLocalization playerLocalization,
+		BotTitleIndex titleIndex
+	) {
 		service = botPlayerService;
 		localization = playerLocalization;
+		this.titleIndex = titleIndex;
 	}
 
 	@Override
 	public void execute(ChatInputInteractionEvent event) {
-		event.editReply(service.connectAndAddToQueue(event, service.getParamValue(event, LINK_OPTION_NAME))).block();
+		service.connectAndAddToQueueAsync(event, service.getLinksParamValue(event, LINK_OPTION_NAME));
 	}
 
 	@Override
 	public List<ApplicationCommandOptionData> getOptions() {
 		return Collections.singletonList(ApplicationCommandOptionData.builder()
 			.name(LINK_OPTION_NAME)
-			.description(localization.getMessage("link_description"))
+			.description(localization.getMessage("links_description"))
 			.type(Type.STRING.getValue())
+			.autocomplete(true)
 			.required(true)
 			.build()
 		);
 	}
 
+	/**
+	 * Known titles, chosen title is replaced with its link
+	 */
+	@Override
+	public List<ApplicationCommandOptionChoiceData> getSuggestions(ChatInputAutoCompleteEvent event) {
+		return titleIndex.suggestChoices(event, BotTitleIndex.Title::getLink);
+	}
+
 	@Override
 	public String getDescription() {
 		return localization.getMessage("add_link_description");
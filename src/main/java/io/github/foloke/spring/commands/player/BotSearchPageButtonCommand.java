@@ -0,0 +1,50 @@
+package io.github.foloke.spring.commands.player;
+
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import io.github.foloke.player.BotGuildPlayer;
+import io.github.foloke.spring.services.BotSearchService;
+import io.github.foloke.utils.commands.BotButtonCommand;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Search results "◀" and "▶" buttons, id params are search session id and page index
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+@Qualifier("local")
+public class BotSearchPageButtonCommand implements BotButtonCommand {
+	public static final String COMMAND_NAME = "search_page";
+	private final BotSearchService searchService;
+
+	@Autowired
+	public BotSearchPageButtonCommand(BotSearchService searchService) {
+		this.searchService = searchService;
+	}
+
+	@Override
+	public void execute(ButtonInteractionEvent event, BotGuildPlayer player) {
+		String[] params = event.getCustomId().split(ID_PARAMS_SEPARATOR);
+		if (params.length == 3) {
+			searchService.showPage(event, params[1], Integer.parseInt(params[2]));
+		}
+	}
+
+	@Override
+	public boolean isPlayerRequired() {
+		return false;
+	}
+
+	@Override
+	public String getButtonText() {
+		return "";
+	}
+
+	@Override
+	public String getCommandName() {
+		return COMMAND_NAME;
+	}
+}
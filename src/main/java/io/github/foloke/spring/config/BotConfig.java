@@ -1,14 +1,33 @@
 package io.github.foloke.spring.config;
 
+import discord4j.common.util.Snowflake;
+import discord4j.common.store.Store;
+import discord4j.common.store.impl.LocalStoreLayout;
+import discord4j.common.store.impl.StorageBackend;
+import discord4j.common.store.impl.StorageConfig;
 import discord4j.core.DiscordClientBuilder;
 import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.Event;
 import discord4j.core.object.presence.ClientActivity;
 import discord4j.core.object.presence.ClientPresence;
+import discord4j.core.shard.GatewayBootstrap;
+import discord4j.core.shard.MemberRequestFilter;
+import discord4j.core.shard.ShardingStrategy;
+import discord4j.gateway.DefaultGatewayClient;
+import discord4j.gateway.GatewayOptions;
+import discord4j.gateway.intent.Intent;
 import discord4j.gateway.intent.IntentSet;
-import discord4j.rest.service.ApplicationService;
-import io.github.foloke.spring.commands.BotChatCommandsService;
+import discord4j.rest.route.Routes;
+import io.github.foloke.player.BotFilePlayerStateStore;
+import io.github.foloke.player.BotPlayerStateStore;
+import io.github.foloke.player.BotTrackLoader;
+import io.github.foloke.spring.commands.BotCommandsRegistrar;
 import io.github.foloke.spring.listeners.EventListener;
+import io.github.foloke.spring.metrics.BotPlayerMetrics;
+import io.github.foloke.spring.services.BotClusterRing;
+import io.github.foloke.spring.services.BotGatewaySessions;
+import io.github.foloke.spring.services.BotGuildDispatcher;
+import io.github.foloke.spring.services.BotShards;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,7 +36,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Bot configuration
@@ -29,19 +50,69 @@ import java.util.List;
 public class BotConfig {
 	public static final String UI_BUTTONS_QUALIFIER = "ui";
 	private static final String BOT_IS_ACTIVE_FORMAT = "Bot is active %s";
+	private static final String SHARDS_LOG_FORMAT = "Shards count: %d";
 	private static final Logger log = LoggerFactory.getLogger(BotConfig.class);
 	private static final String BOT_STARTUP_ERROR_MESSAGE = "Bot startup error, retry in %dms:";
 	private static final int RETRY_INTERVAL_MS = 10000;
+	/**
+	 * Guild task waits for the acknowledgement at most this long, interaction token is valid for 15 minutes anyway
+	 */
+	private static final Duration ACKNOWLEDGE_WAIT = Duration.ofSeconds(10);
 
 	@Value("${token}")
 	private String token;
 	@Value("${debug}")
 	private boolean isDebug;
-	private final BotChatCommandsService botChatCommandsService;
+	@Value("${trackCacheSize}")
+	private int trackCacheSize;
+	@Value("${trackCacheTtlMinutes}")
+	private long trackCacheTtlMinutes;
+	@Value("${trackLoaderThreads}")
+	private int trackLoaderThreads;
+	@Value("${prefetchCacheSize}")
+	private int prefetchCacheSize;
+	/**
+	 * Prefetched search results are dropped earlier than the search message buttons expire
+	 */
+	@Value("${prefetchTtlMinutes}")
+	private long prefetchTtlMinutes;
+	/**
+	 * Directory for guilds queue journals, empty to disable queue persistence
+	 */
+	@Value("${journalPath}")
+	private String journalPath;
+	/**
+	 * Subscribe only to intents of enabled listeners and keep bounded entity store
+	 */
+	@Value("${minimalGateway}")
+	private boolean minimalGateway;
+	@Value("${messageCacheSize}")
+	private int messageCacheSize;
+	/**
+	 * Discord API url, empty for Discord itself. Local gateway stand-in is set here to check sharding: the bot takes
+	 * the gateway url and the recommended shards count from its /gateway/bot
+	 */
+	@Value("${discordBaseUrl}")
+	private String discordBaseUrl;
+	private final BotCommandsRegistrar commandsRegistrar;
+	private final BotGuildDispatcher guildDispatcher;
+	private final BotShards shards;
+	private final BotClusterRing clusterRing;
+	private final BotGatewaySessions gatewaySessions;
 
 	@Autowired
-	public BotConfig(BotChatCommandsService botChatCommandsService) {
-		this.botChatCommandsService = botChatCommandsService;
+	public BotConfig(
+		BotCommandsRegistrar commandsRegistrar,
+		BotGuildDispatcher guildDispatcher,
+		BotShards shards,
+		BotClusterRing clusterRing,
+		BotGatewaySessions gatewaySessions
+	) {
+		this.commandsRegistrar = commandsRegistrar;
+		this.guildDispatcher = guildDispatcher;
+		this.shards = shards;
+		this.clusterRing = clusterRing;
+		this.gatewaySessions = gatewaySessions;
 	}
 
 	/**
@@ -54,23 +125,57 @@ public class BotConfig {
 		return createDiscordClient(eventListenerList);
 	}
 
+	/**
+	 * Shared audio player manager with resolved tracks cache
+	 */
+	@Bean
+	public BotTrackLoader botTrackLoader(BotPlayerMetrics playerMetrics) {
+		return new BotTrackLoader(
+			BotTrackLoader.createDefaultPlayerManager(trackLoaderThreads),
+			trackCacheSize,
+			trackCacheTtlMinutes,
+			prefetchCacheSize,
+			prefetchTtlMinutes,
+			playerMetrics
+		);
+	}
+
+	/**
+	 * Guild players state kept in journals directory (shared by the nodes in cluster mode)
+	 */
+	@Bean
+	public BotPlayerStateStore botPlayerStateStore() {
+		return new BotFilePlayerStateStore(journalPath);
+	}
+
 	private <T extends Event> GatewayDiscordClient createDiscordClient(List<EventListener<T>> eventListenerList)
 		throws InterruptedException
 	{
 		try {
 			log.info("Trying to connect to Discord");
-			GatewayDiscordClient gatewayDiscordClient = DiscordClientBuilder.create(token)
+			GatewayBootstrap<GatewayOptions> gatewayBootstrap = DiscordClientBuilder.create(token)
+				.setDiscordBaseUrl(discordBaseUrl.isEmpty() ? Routes.BASE_URL : discordBaseUrl)
 				.build()
 				.gateway()
-				.setEnabledIntents(IntentSet.all())
-				.setInitialPresence(shardInfo -> ClientPresence.doNotDisturb(ClientActivity.custom("starting")))
-				.login()
+				.setEnabledIntents(getIntents(eventListenerList))
+				.setInitialPresence(shardInfo -> ClientPresence.doNotDisturb(ClientActivity.custom("starting")));
+			if (shards.isConfigured()) {
+				gatewayBootstrap = gatewayBootstrap.setSharding(createShardingStrategy());
+			}
+			if (minimalGateway) {
+				gatewayBootstrap = gatewayBootstrap.setStore(createBoundedStore())
+					.setMemberRequestFilter(MemberRequestFilter.none());
+			}
+			GatewayDiscordClient gatewayDiscordClient = gatewayBootstrap
+				.login(options -> new DefaultGatewayClient(gatewaySessions.withResume(options)))
 				.flatMap(client -> {
+					shards.setShardCount(client.getGatewayClientGroup().getShardCount());
+					log.info(String.format(SHARDS_LOG_FORMAT, shards.getShardCount()));
 					eventListenerList.forEach(listener -> client.getEventDispatcher()
 						.on(listener.getTypeClass())
-						.subscribe(listener::executeCommand)
+						.subscribe(event -> dispatch(listener, event))
 					);
-					registerGlobalCommands(client);
+					commandsRegistrar.registerGlobalCommands(client.getRestClient());
 					log.info(String.format(BOT_IS_ACTIVE_FORMAT, Thread.currentThread()));
 					return Mono.just(client);
 				}).block();
@@ -93,15 +198,73 @@ public class BotConfig {
 
 
 	/**
-	 * Registers Commands for spectifed guild
+	 * Configured shards count, only configured indices are started (all if not specified)
+	 */
+	private ShardingStrategy createShardingStrategy() {
+		ShardingStrategy.Builder shardingBuilder = ShardingStrategy.builder().count(shards.getConfiguredShardCount());
+		List<Integer> shardIndices = shards.getShardIndices();
+		if (shardIndices.isEmpty() && clusterRing.isEnabled()) {
+			throw new IllegalStateException(String.format("Node %s owns no shards", clusterRing.getNodeId()));
+		}
+		if (!shardIndices.isEmpty()) {
+			shardingBuilder.indices(shardIndices.stream().mapToInt(Integer::intValue).toArray());
+		}
+		return shardingBuilder.build();
+	}
+
+	/**
+	 * Only intents of the enabled listeners (guilds and voice states are always needed for voice connections)
+	 */
+	private <T extends Event> IntentSet getIntents(List<EventListener<T>> eventListenerList) {
+		if (!minimalGateway) {
+			return IntentSet.all();
+		}
+		IntentSet intents = IntentSet.of(Intent.GUILDS, Intent.GUILD_VOICE_STATES);
+		for (EventListener<T> listener : eventListenerList) {
+			intents = intents.or(listener.getIntents());
+		}
+		log.info(String.format("Gateway intents: %s", intents));
+		return intents;
+	}
+
+	/**
+	 * Store keeps only what the subscribed intents deliver, messages are evicted after messageCacheSize
+	 */
+	private Store createBoundedStore() {
+		return Store.fromLayout(LocalStoreLayout.create(StorageConfig.builder()
+			.setMessageBackend(StorageBackend.caffeine(caffeine -> caffeine.maximumSize(messageCacheSize)))
+			.build()
+		));
+	}
+
+	/**
+	 * Event is acknowledged on the event thread, blocking listeners are put to the guild serial queue right away (so
+	 * events of a guild are handled in arrival order) and start after the acknowledgement without holding a thread
 	 */
-	public void registerGlobalCommands(GatewayDiscordClient discordClient) {
-		Long applicationId = discordClient.getRestClient().getApplicationId().block();
-		ApplicationService applicationService = discordClient.getRestClient().getApplicationService();
-		if (applicationId != null) {
-			botChatCommandsService.getGlobalApplicationCommandRequestList().forEach(commandRequest ->
-				applicationService.createGlobalApplicationCommand(applicationId, commandRequest).block()
+	private <T extends Event> void dispatch(EventListener<T> listener, T event) {
+		if (listener.isBlocking()) {
+			long guildId = listener.getGuildId(event).map(Snowflake::asLong).orElse(BotGuildDispatcher.NO_GUILD_ID);
+			Mono<Void> acknowledgement = listener.acknowledge(event)
+				.onErrorResume(throwable -> {
+					log.error("Event acknowledge error", throwable);
+					return Mono.empty();
+				})
+				.cache();
+			acknowledgement.subscribe();
+			CompletableFuture<Void> acknowledgementWait = acknowledgement.timeout(ACKNOWLEDGE_WAIT)
+				.onErrorResume(throwable -> {
+					log.error("Event acknowledge wait timeout", throwable);
+					return Mono.empty();
+				})
+				.toFuture();
+			guildDispatcher.dispatch(
+				event.getShardInfo().getIndex(),
+				guildId,
+				acknowledgementWait,
+				() -> listener.executeCommand(event)
 			);
+		} else {
+			listener.executeCommand(event);
 		}
 	}
 }
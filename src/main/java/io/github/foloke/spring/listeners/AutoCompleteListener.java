@@ -0,0 +1,52 @@
+package io.github.foloke.spring.listeners;
+
+import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
+import io.github.foloke.utils.commands.BotChatCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handles chat commands options autocomplete
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class AutoCompleteListener implements EventListener<ChatInputAutoCompleteEvent> {
+	private static final String AUTOCOMPLETE_ERROR_MESSAGE = "Autocomplete error";
+	private final Logger log = LoggerFactory.getLogger(AutoCompleteListener.class);
+	private final List<BotChatCommand> commandList;
+
+	@Autowired
+	public AutoCompleteListener(List<BotChatCommand> commandList) {
+		this.commandList = new ArrayList<>(commandList);
+	}
+
+	@Override
+	public void executeCommand(ChatInputAutoCompleteEvent event) {
+		commandList.stream()
+			.filter(command -> command.getCommandName().equals(event.getCommandName()))
+			.findFirst()
+			.ifPresent(command -> event.respondWithSuggestions(command.getSuggestions(event))
+				.subscribe(null, throwable -> log.error(AUTOCOMPLETE_ERROR_MESSAGE, throwable))
+			);
+	}
+
+	/**
+	 * Suggestions are taken from memory and must be sent in 3 seconds, so they don't wait in guild queue
+	 */
+	@Override
+	public boolean isBlocking() {
+		return false;
+	}
+
+	@Override
+	public Class<ChatInputAutoCompleteEvent> getTypeClass() {
+		return ChatInputAutoCompleteEvent.class;
+	}
+}
@@ -1,18 +1,22 @@
 package io.github.foloke.spring.listeners;
 
+import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
 import io.github.foloke.PlayerAccessException;
 import io.github.foloke.player.BotGuildPlayer;
+import io.github.foloke.spring.metrics.BotInteractionMetrics;
 import io.github.foloke.spring.services.BotPlayerService;
 import io.github.foloke.utils.commands.BotButtonCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static io.github.foloke.utils.commands.BotButtonCommand.ID_PARAMS_SEPARATOR;
 
@@ -28,35 +32,66 @@ public class ButtonCommandsListener implements EventListener<ButtonInteractionEv
 	private final Logger log = LoggerFactory.getLogger(ButtonCommandsListener.class);
 	private final BotPlayerService botPlayerService;
 	private final List<BotButtonCommand> buttonCommandList;
+	private final BotInteractionMetrics interactionMetrics;
 
 	@Autowired
-	public ButtonCommandsListener(BotPlayerService botPlayerService, List<BotButtonCommand> buttonCommandList) {
+	public ButtonCommandsListener(
+		BotPlayerService botPlayerService,
+		List<BotButtonCommand> buttonCommandList,
+		BotInteractionMetrics interactionMetrics
+	) {
 		this.botPlayerService = botPlayerService;
 		this.buttonCommandList = new ArrayList<>(buttonCommandList);
+		this.interactionMetrics = interactionMetrics;
+	}
+
+	/**
+	 * Defers message update before the player is connected, commands edit the message or send followups later
+	 */
+	@Override
+	public Mono<Void> acknowledge(ButtonInteractionEvent event) {
+		String commandName = getCommandName(event);
+		return event.deferEdit()
+			.doOnSuccess(ignored -> interactionMetrics.recordAck(commandName, event.getInteraction().getId(), false))
+			.doOnError(throwable -> interactionMetrics.recordAck(commandName, event.getInteraction().getId(), true));
 	}
 
 	@Override
 	public void executeCommand(ButtonInteractionEvent event) {
+		String commandName = getCommandName(event);
 		try {
-			String commandName = Arrays.stream(event.getCustomId().split(ID_PARAMS_SEPARATOR)).findFirst().orElse("");
+			Optional<BotButtonCommand> buttonCommand = buttonCommandList.stream()
+				.filter(command -> commandName.equals(command.getCommandName()))
+				.findFirst();
+			if (!buttonCommand.map(BotButtonCommand::isPlayerRequired).orElse(false)) {
+				buttonCommand.ifPresent(command -> command.execute(event, null));
+				return;
+			}
 			event.getInteraction().getGuildId().ifPresent(guildId -> {
 				BotGuildPlayer botGuildPlayer = botPlayerService.connect(guildId, event.getInteraction());
 				if (botPlayerService.isPlayerButtonCommand(commandName) && event.getMessage().isPresent()) {
 					botGuildPlayer.setMessage(event.getMessage().get());
 				}
-
-				buttonCommandList.stream()
-					.filter(command -> commandName.equals(command.getCommandName()))
-					.findFirst()
-					.ifPresent(command -> command.execute(event, botGuildPlayer));
+				buttonCommand.get().execute(event, botGuildPlayer);
 			});
 		} catch (PlayerAccessException e) {
-			botPlayerService.replyToAccessError(event, e);
+			botPlayerService.followupAccessError(event, e);
 		} catch (Exception e) {
 			log.error(BUTTON_COMMAND_SUBSCRIPTION_ERROR_MESSAGE, e);
+		} finally {
+			interactionMetrics.recordCompletion(commandName, event.getInteraction().getId());
 		}
 	}
 
+	private static String getCommandName(ButtonInteractionEvent event) {
+		return Arrays.stream(event.getCustomId().split(ID_PARAMS_SEPARATOR)).findFirst().orElse("");
+	}
+
+	@Override
+	public Optional<Snowflake> getGuildId(ButtonInteractionEvent event) {
+		return event.getInteraction().getGuildId();
+	}
+
 	@Override
 	public Class<ButtonInteractionEvent> getTypeClass() {
 		return ButtonInteractionEvent.class;
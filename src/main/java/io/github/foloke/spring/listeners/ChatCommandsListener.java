@@ -1,16 +1,20 @@
 package io.github.foloke.spring.listeners;
 
+import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
 import io.github.foloke.PlayerAccessException;
+import io.github.foloke.spring.metrics.BotInteractionMetrics;
 import io.github.foloke.spring.services.BotPlayerService;
 import io.github.foloke.utils.commands.BotChatCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Handles chat commands ("/") interactions
@@ -25,30 +29,65 @@ public class ChatCommandsListener implements EventListener<ChatInputInteractionE
 	private final Logger log = LoggerFactory.getLogger(ChatCommandsListener.class);
 	private final BotPlayerService botPlayerService;
 	private final List<BotChatCommand> commandList;
+	private final BotInteractionMetrics interactionMetrics;
 
 	@Autowired
-	public ChatCommandsListener(BotPlayerService botPlayerService, List<BotChatCommand> commandList) {
+	public ChatCommandsListener(
+		BotPlayerService botPlayerService,
+		List<BotChatCommand> commandList,
+		BotInteractionMetrics interactionMetrics
+	) {
 		this.botPlayerService = botPlayerService;
 		this.commandList = new ArrayList<>(commandList);
+		this.interactionMetrics = interactionMetrics;
+	}
+
+	/**
+	 * Defers reply, so the command has 15 minutes to edit it
+	 */
+	@Override
+	public Mono<Void> acknowledge(ChatInputInteractionEvent event) {
+		return findCommand(event)
+			.map(command -> event.deferReply()
+				.withEphemeral(command.isEphemeral())
+				.doOnSuccess(ignored -> interactionMetrics.recordAck(
+					event.getCommandName(),
+					event.getInteraction().getId(),
+					false
+				))
+				.doOnError(throwable -> interactionMetrics.recordAck(
+					event.getCommandName(),
+					event.getInteraction().getId(),
+					true
+				))
+			)
+			.orElse(Mono.empty());
 	}
 
 	@Override
 	public void executeCommand(ChatInputInteractionEvent event) {
 		try {
-			commandList.stream()
-				.filter(command -> command.getCommandName().equals(event.getCommandName()))
-				.findFirst()
-				.ifPresent(command -> {
-					event.deferReply().withEphemeral(command.isEphemeral()).block();
-					command.execute(event);
-				});
+			findCommand(event).ifPresent(command -> command.execute(event));
 		} catch (PlayerAccessException e) {
 			botPlayerService.editReplyToAccessError(event, e);
 		} catch (Exception e) {
 			log.error(CHAT_COMMANDS_SUBSCRIPTION_ERROR_MESSAGE, e);
+		} finally {
+			interactionMetrics.recordCompletion(event.getCommandName(), event.getInteraction().getId());
 		}
 	}
 
+	private Optional<BotChatCommand> findCommand(ChatInputInteractionEvent event) {
+		return commandList.stream()
+			.filter(command -> command.getCommandName().equals(event.getCommandName()))
+			.findFirst();
+	}
+
+	@Override
+	public Optional<Snowflake> getGuildId(ChatInputInteractionEvent event) {
+		return event.getInteraction().getGuildId();
+	}
+
 	@Override
 	public Class<ChatInputInteractionEvent> getTypeClass() {
 		return ChatInputInteractionEvent.class;
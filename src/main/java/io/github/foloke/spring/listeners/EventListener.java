@@ -1,7 +1,12 @@
 package io.github.foloke.spring.listeners;
 
+import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.Event;
+import discord4j.gateway.intent.IntentSet;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
 
 /**
  * Base interface for interactions
@@ -14,4 +19,32 @@ public interface EventListener<T extends Event> {
 	void executeCommand(T event);
 
 	Class<T> getTypeClass();
+
+	/**
+	 * Acknowledges the event right on the event thread, before the blocking handling is queued
+	 */
+	default Mono<Void> acknowledge(T event) {
+		return Mono.empty();
+	}
+
+	/**
+	 * Guild of the event, events of one guild are handled in order
+	 */
+	default Optional<Snowflake> getGuildId(T event) {
+		return Optional.empty();
+	}
+
+	/**
+	 * Gateway intents needed to receive the events
+	 */
+	default IntentSet getIntents() {
+		return IntentSet.none();
+	}
+
+	/**
+	 * Blocking listeners are run by guild dispatcher, non-blocking ones right on the event thread
+	 */
+	default boolean isBlocking() {
+		return true;
+	}
 }
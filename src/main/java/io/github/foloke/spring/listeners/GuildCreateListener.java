@@ -0,0 +1,44 @@
+package io.github.foloke.spring.listeners;
+
+import discord4j.core.event.domain.guild.GuildCreateEvent;
+import discord4j.gateway.intent.Intent;
+import discord4j.gateway.intent.IntentSet;
+import io.github.foloke.spring.services.BotVoiceStateCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fills voice state cache with voice states of the received guild
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class GuildCreateListener implements EventListener<GuildCreateEvent> {
+	private final BotVoiceStateCache voiceStateCache;
+
+	@Autowired
+	public GuildCreateListener(BotVoiceStateCache voiceStateCache) {
+		this.voiceStateCache = voiceStateCache;
+	}
+
+	@Override
+	public void executeCommand(GuildCreateEvent event) {
+		voiceStateCache.onGuildCreate(event);
+	}
+
+	@Override
+	public boolean isBlocking() {
+		return false;
+	}
+
+	@Override
+	public IntentSet getIntents() {
+		return IntentSet.of(Intent.GUILDS);
+	}
+
+	@Override
+	public Class<GuildCreateEvent> getTypeClass() {
+		return GuildCreateEvent.class;
+	}
+}
@@ -3,12 +3,16 @@ package io.github.foloke.spring.listeners;
 import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.message.MessageCreateEvent;
 import discord4j.core.object.entity.Message;
+import discord4j.gateway.intent.Intent;
+import discord4j.gateway.intent.IntentSet;
 import io.github.foloke.spring.services.localization.BotLocalization;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.SpringVersion;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 /**
  * Handles chat messages interactions
  *
@@ -42,6 +46,16 @@ public class MessageListener implements EventListener<MessageCreateEvent> {
 		}
 	}
 
+	@Override
+	public Optional<Snowflake> getGuildId(MessageCreateEvent event) {
+		return event.getGuildId();
+	}
+
+	@Override
+	public IntentSet getIntents() {
+		return IntentSet.of(Intent.GUILD_MESSAGES, Intent.DIRECT_MESSAGES, Intent.MESSAGE_CONTENT);
+	}
+
 	@Override
 	public Class<MessageCreateEvent> getTypeClass() {
 		return MessageCreateEvent.class;
@@ -0,0 +1,47 @@
+package io.github.foloke.spring.listeners;
+
+import discord4j.core.event.domain.VoiceStateUpdateEvent;
+import discord4j.gateway.intent.Intent;
+import discord4j.gateway.intent.IntentSet;
+import io.github.foloke.spring.services.BotVoiceStateCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps voice state cache current with members joining, moving and leaving voice channels
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class VoiceStateListener implements EventListener<VoiceStateUpdateEvent> {
+	private final BotVoiceStateCache voiceStateCache;
+
+	@Autowired
+	public VoiceStateListener(BotVoiceStateCache voiceStateCache) {
+		this.voiceStateCache = voiceStateCache;
+	}
+
+	@Override
+	public void executeCommand(VoiceStateUpdateEvent event) {
+		voiceStateCache.onVoiceStateUpdate(event);
+	}
+
+	/**
+	 * Only updates memory, must be applied before the interactions that follow it
+	 */
+	@Override
+	public boolean isBlocking() {
+		return false;
+	}
+
+	@Override
+	public IntentSet getIntents() {
+		return IntentSet.of(Intent.GUILD_VOICE_STATES);
+	}
+
+	@Override
+	public Class<VoiceStateUpdateEvent> getTypeClass() {
+		return VoiceStateUpdateEvent.class;
+	}
+}
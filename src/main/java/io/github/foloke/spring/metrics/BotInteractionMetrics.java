@@ -0,0 +1,97 @@
+package io.github.foloke.spring.metrics;
+
+import discord4j.common.util.Snowflake;
+import io.github.foloke.spring.metrics.jfr.BotInteractionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interactions latency per command. Ack latency is counted from the interaction creation (its snowflake time), so it
+ * shows how close the acknowledgement came to the Discord 3 seconds deadline.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotInteractionMetrics {
+	public static final Duration ACK_DEADLINE = Duration.ofSeconds(3);
+	private static final long ACK_WARNING_MILLIS = 2000;
+	private final Logger log = LoggerFactory.getLogger(BotInteractionMetrics.class);
+	private final Map<String, CommandMetrics> commandToMetrics = new ConcurrentHashMap<>();
+
+	/**
+	 * Records acknowledgement of interaction
+	 *
+	 * @param failed ack request failed (usually because the deadline was missed)
+	 */
+	public void recordAck(String commandName, Snowflake interactionId, boolean failed) {
+		long ackMillis = getMillisSince(interactionId);
+		CommandMetrics metrics = getMetrics(commandName);
+		metrics.ackLatency.record(ackMillis);
+		boolean missed = failed || ackMillis > ACK_DEADLINE.toMillis();
+		BotInteractionEvent interactionEvent = new BotInteractionEvent();
+		if (interactionEvent.shouldCommit()) {
+			interactionEvent.command = commandName;
+			interactionEvent.ackMillis = ackMillis;
+			interactionEvent.missed = missed;
+			interactionEvent.commit();
+		}
+		if (missed) {
+			metrics.missedAcks.increment();
+			log.warn(String.format("Interaction %s ack missed: %dms", commandName, ackMillis));
+		} else if (ackMillis > ACK_WARNING_MILLIS) {
+			log.warn(String.format("Interaction %s ack is close to deadline: %dms", commandName, ackMillis));
+		}
+	}
+
+	/**
+	 * Records whole interaction handling (from creation to handler end)
+	 */
+	public void recordCompletion(String commandName, Snowflake interactionId) {
+		getMetrics(commandName).handlingLatency.record(getMillisSince(interactionId));
+	}
+
+	/**
+	 * Metrics of every command, sorted by command name
+	 */
+	public Map<String, CommandMetrics> getMetrics() {
+		return new TreeMap<>(commandToMetrics);
+	}
+
+	private CommandMetrics getMetrics(String commandName) {
+		return commandToMetrics.computeIfAbsent(commandName, name -> new CommandMetrics());
+	}
+
+	private static long getMillisSince(Snowflake interactionId) {
+		return Math.max(0, Duration.between(interactionId.getTimestamp(), Instant.now()).toMillis());
+	}
+
+	/**
+	 * Latency metrics of one command
+	 */
+	public static final class CommandMetrics {
+		private final BotLatencyHistogram ackLatency = new BotLatencyHistogram();
+		private final BotLatencyHistogram handlingLatency = new BotLatencyHistogram();
+		private final LongAdder missedAcks = new LongAdder();
+
+		public BotLatencyHistogram getAckLatency() {
+			return ackLatency;
+		}
+
+		public BotLatencyHistogram getHandlingLatency() {
+			return handlingLatency;
+		}
+
+		public long getMissedAcks() {
+			return missedAcks.sum();
+		}
+	}
+}
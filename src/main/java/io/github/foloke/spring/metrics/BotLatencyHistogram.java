@@ -0,0 +1,86 @@
+package io.github.foloke.spring.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed millisecond buckets. Quantiles are estimated by bucket upper bounds.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotLatencyHistogram {
+	/**
+	 * Bucket upper bounds, the last bucket holds everything above
+	 */
+	private static final long[] BUCKET_BOUNDS_MS = {
+		10, 25, 50, 100, 250, 500, 1000, 1500, 2000, 2500, 3000, 5000, 10000, 30000
+	};
+	private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sumMillis = new LongAdder();
+	private final AtomicLong maxMillis = new AtomicLong();
+
+	public BotLatencyHistogram() {
+		Arrays.setAll(buckets, index -> new LongAdder());
+	}
+
+	/**
+	 * Adds one measurement
+	 */
+	public void record(long latencyMillis) {
+		int bucketIndex = Arrays.binarySearch(BUCKET_BOUNDS_MS, latencyMillis);
+		buckets[bucketIndex >= 0 ? bucketIndex : -bucketIndex - 1].increment();
+		count.increment();
+		sumMillis.add(latencyMillis);
+		maxMillis.accumulateAndGet(latencyMillis, Math::max);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSumMillis() {
+		return sumMillis.sum();
+	}
+
+	public long getMaxMillis() {
+		return maxMillis.get();
+	}
+
+	/**
+	 * Upper bound of the bucket holding the quantile, max latency for the last bucket
+	 *
+	 * @param quantile 0..1
+	 */
+	public long getQuantileMillis(double quantile) {
+		long total = count.sum();
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+			seen += buckets[i].sum();
+			if (seen >= rank) {
+				return BUCKET_BOUNDS_MS[i];
+			}
+		}
+		return getMaxMillis();
+	}
+
+	/**
+	 * Bucket upper bounds in ms, the last bucket is unbounded
+	 */
+	public static long[] getBucketBoundsMillis() {
+		return BUCKET_BOUNDS_MS.clone();
+	}
+
+	/**
+	 * Non-cumulative counts of every bucket, one more than bounds
+	 */
+	public long[] getBucketCounts() {
+		return Arrays.stream(buckets).mapToLong(LongAdder::sum).toArray();
+	}
+}
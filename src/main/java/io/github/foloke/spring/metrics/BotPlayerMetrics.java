@@ -0,0 +1,71 @@
+package io.github.foloke.spring.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Players metrics summed over all the guilds: gif render and message edit latency, track resolve latency and audio
+ * underruns. Recording is lock-free, so it's called from the player threads directly.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotPlayerMetrics {
+	private final BotLatencyHistogram renderLatency = new BotLatencyHistogram();
+	private final BotLatencyHistogram editLatency = new BotLatencyHistogram();
+	private final BotLatencyHistogram trackLoadLatency = new BotLatencyHistogram();
+	private final LongAdder editFailures = new LongAdder();
+	private final LongAdder underruns = new LongAdder();
+
+	public void recordRender(long latencyMillis) {
+		renderLatency.record(latencyMillis);
+	}
+
+	/**
+	 * Records player message edit
+	 *
+	 * @param failed edit request failed
+	 */
+	public void recordEdit(long latencyMillis, boolean failed) {
+		editLatency.record(latencyMillis);
+		if (failed) {
+			editFailures.increment();
+		}
+	}
+
+	/**
+	 * Records identifier resolve by the audio sources (cache misses only)
+	 */
+	public void recordTrackLoad(long latencyMillis) {
+		trackLoadLatency.record(latencyMillis);
+	}
+
+	/**
+	 * Records audio frame missed while the track plays
+	 */
+	public void recordUnderrun() {
+		underruns.increment();
+	}
+
+	public BotLatencyHistogram getRenderLatency() {
+		return renderLatency;
+	}
+
+	public BotLatencyHistogram getEditLatency() {
+		return editLatency;
+	}
+
+	public BotLatencyHistogram getTrackLoadLatency() {
+		return trackLoadLatency;
+	}
+
+	public long getEditFailures() {
+		return editFailures.sum();
+	}
+
+	public long getUnderruns() {
+		return underruns.sum();
+	}
+}
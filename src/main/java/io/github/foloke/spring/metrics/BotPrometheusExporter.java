@@ -0,0 +1,222 @@
+package io.github.foloke.spring.metrics;
+
+import io.github.foloke.player.BotGuildPlayer;
+import io.github.foloke.player.BotPlayState;
+import io.github.foloke.player.BotTrackLoader;
+import io.github.foloke.spring.services.BotGuildDispatcher;
+import io.github.foloke.spring.services.BotGuildDispatcher.GuildQueueStats;
+import io.github.foloke.spring.services.BotPlayersHolder;
+import io.github.foloke.spring.youtube.YouTubeService;
+import io.github.foloke.utils.BotLoadingCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bot metrics in Prometheus text format. Everything is read from counters kept by the bot, players are walked once,
+ * so a scrape costs one pass over the players.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotPrometheusExporter {
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+	private static final String GAUGE = "gauge";
+	private static final String COUNTER = "counter";
+	private static final String SUMMARY = "summary";
+	private final BotPlayersHolder playersHolder;
+	private final BotGuildDispatcher guildDispatcher;
+	private final BotTrackLoader trackLoader;
+	private final YouTubeService youTubeService;
+	private final BotPlayerMetrics playerMetrics;
+	private final BotInteractionMetrics interactionMetrics;
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	@Autowired
+	public BotPrometheusExporter(
+		BotPlayersHolder playersHolder,
+		BotGuildDispatcher guildDispatcher,
+		BotTrackLoader trackLoader,
+		YouTubeService youTubeService,
+		BotPlayerMetrics playerMetrics,
+		BotInteractionMetrics interactionMetrics
+	) {
+		this.playersHolder = playersHolder;
+		this.guildDispatcher = guildDispatcher;
+		this.trackLoader = trackLoader;
+		this.youTubeService = youTubeService;
+		this.playerMetrics = playerMetrics;
+		this.interactionMetrics = interactionMetrics;
+	}
+
+	/**
+	 * Current metrics text
+	 */
+	public String scrape() {
+		StringBuilder builder = new StringBuilder();
+		appendPlayers(builder);
+		appendDispatcher(builder);
+		header(builder, "huebot_threads", GAUGE, "Live JVM threads");
+		sample(builder, "huebot_threads", "", threadMXBean.getThreadCount());
+		header(builder, "huebot_threads_daemon", GAUGE, "Live JVM daemon threads");
+		sample(builder, "huebot_threads_daemon", "", threadMXBean.getDaemonThreadCount());
+		appendSummary(builder, "huebot_render_latency_ms", "Player gif render time", playerMetrics.getRenderLatency());
+		appendSummary(builder, "huebot_edit_latency_ms", "Player message edit latency", playerMetrics.getEditLatency());
+		header(builder, "huebot_edit_failures_total", COUNTER, "Failed player message edits");
+		sample(builder, "huebot_edit_failures_total", "", playerMetrics.getEditFailures());
+		appendSummary(
+			builder,
+			"huebot_track_load_latency_ms",
+			"Track resolve latency (cache misses)",
+			playerMetrics.getTrackLoadLatency()
+		);
+		appendCaches(builder);
+		header(builder, "huebot_audio_underruns_total", COUNTER, "Audio frames missed while a track plays");
+		sample(builder, "huebot_audio_underruns_total", "", playerMetrics.getUnderruns());
+		appendInteractions(builder);
+		return builder.toString();
+	}
+
+	private void appendPlayers(StringBuilder builder) {
+		Map<Integer, List<BotGuildPlayer>> shardPlayers = playersHolder.getShardPlayers();
+		header(builder, "huebot_players", GAUGE, "Guild players per shard");
+		shardPlayers.forEach(
+			(shardIndex, players) -> sample(builder, "huebot_players", shardLabel(shardIndex), players.size())
+		);
+		long playing = 0;
+		long rendersPending = 0;
+		for (List<BotGuildPlayer> players : shardPlayers.values()) {
+			for (BotGuildPlayer player : players) {
+				playing += player.getPlayState() == BotPlayState.PLAY ? 1 : 0;
+				rendersPending += player.getEditBacklog() > 0 ? 1 : 0;
+			}
+		}
+		header(builder, "huebot_players_playing", GAUGE, "Players playing a track");
+		sample(builder, "huebot_players_playing", "", playing);
+		header(builder, "huebot_render_queue_depth", GAUGE, "Players with changes not shown in the message yet");
+		sample(builder, "huebot_render_queue_depth", "", rendersPending);
+	}
+
+	private void appendDispatcher(StringBuilder builder) {
+		Map<Integer, GuildQueueStats> shardStats = guildDispatcher.getShardStats();
+		header(builder, "huebot_dispatcher_queue_depth", GAUGE, "Guild events waiting for handling");
+		appendShardStats(builder, shardStats, "huebot_dispatcher_queue_depth", GuildQueueStats::getQueueDepth);
+		header(builder, "huebot_dispatcher_completed_total", COUNTER, "Handled guild events");
+		appendShardStats(builder, shardStats, "huebot_dispatcher_completed_total", GuildQueueStats::getCompletedCount);
+		header(builder, "huebot_dispatcher_wait_max_ms", GAUGE, "Max guild event wait over the last minutes");
+		appendShardStats(builder, shardStats, "huebot_dispatcher_wait_max_ms", GuildQueueStats::getMaxWaitMillis);
+	}
+
+	private static void appendShardStats(
+		StringBuilder builder,
+		Map<Integer, GuildQueueStats> shardStats,
+		String name,
+		ToLongFunction<GuildQueueStats> value
+	) {
+		shardStats.forEach(
+			(shardIndex, stats) -> sample(builder, name, shardLabel(shardIndex), value.applyAsLong(stats))
+		);
+	}
+
+	private void appendCaches(StringBuilder builder) {
+		Map<String, BotLoadingCache<?, ?>> nameToCache = new TreeMap<>();
+		nameToCache.put("tracks", trackLoader.getCache());
+		nameToCache.put("track_prefetch", trackLoader.getPrefetchCache());
+		nameToCache.put("youtube_search", youTubeService.getSearchCache());
+		header(builder, "huebot_cache_hits_total", COUNTER, "Cache hits");
+		appendCacheStats(builder, nameToCache, "huebot_cache_hits_total", BotLoadingCache::getHitCount);
+		header(builder, "huebot_cache_misses_total", COUNTER, "Cache misses");
+		appendCacheStats(builder, nameToCache, "huebot_cache_misses_total", BotLoadingCache::getMissCount);
+		header(builder, "huebot_cache_size", GAUGE, "Cached entries");
+		appendCacheStats(builder, nameToCache, "huebot_cache_size", BotLoadingCache::size);
+	}
+
+	private static void appendCacheStats(
+		StringBuilder builder,
+		Map<String, BotLoadingCache<?, ?>> nameToCache,
+		String name,
+		ToLongFunction<BotLoadingCache<?, ?>> value
+	) {
+		nameToCache.forEach(
+			(cacheName, cache) -> sample(builder, name, cacheLabel(cacheName), value.applyAsLong(cache))
+		);
+	}
+
+	private void appendInteractions(StringBuilder builder) {
+		header(builder, "huebot_interaction_ack_latency_ms", SUMMARY, "Interaction acknowledgement latency");
+		interactionMetrics.getMetrics().forEach((command, metrics) -> appendSummarySamples(
+			builder,
+			"huebot_interaction_ack_latency_ms",
+			String.format("command=\"%s\"", escape(command)),
+			metrics.getAckLatency()
+		));
+		header(builder, "huebot_interaction_missed_acks_total", COUNTER, "Interactions acknowledged too late");
+		interactionMetrics.getMetrics().forEach((command, metrics) -> sample(
+			builder,
+			"huebot_interaction_missed_acks_total",
+			String.format("command=\"%s\"", escape(command)),
+			metrics.getMissedAcks()
+		));
+	}
+
+	private static void appendSummary(
+		StringBuilder builder,
+		String name,
+		String help,
+		BotLatencyHistogram histogram
+	) {
+		header(builder, name, SUMMARY, help);
+		appendSummarySamples(builder, name, "", histogram);
+	}
+
+	/**
+	 * Quantiles are bucket upper bounds of the histogram
+	 */
+	private static void appendSummarySamples(
+		StringBuilder builder,
+		String name,
+		String labels,
+		BotLatencyHistogram histogram
+	) {
+		String labelsPrefix = labels.isEmpty() ? "" : labels + ",";
+		for (double quantile : QUANTILES) {
+			String quantileLabels = String.format("%squantile=\"%s\"", labelsPrefix, quantile);
+			sample(builder, name, quantileLabels, histogram.getQuantileMillis(quantile));
+		}
+		sample(builder, name + "_sum", labels, histogram.getSumMillis());
+		sample(builder, name + "_count", labels, histogram.getCount());
+	}
+
+	private static void header(StringBuilder builder, String name, String type, String help) {
+		builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder builder, String name, String labels, long value) {
+		builder.append(name);
+		if (!labels.isEmpty()) {
+			builder.append('{').append(labels).append('}');
+		}
+		builder.append(' ').append(value).append('\n');
+	}
+
+	private static String cacheLabel(String cacheName) {
+		return String.format("cache=\"%s\"", cacheName);
+	}
+
+	private static String shardLabel(int shardIndex) {
+		return String.format("shard=\"%d\"", shardIndex);
+	}
+
+	private static String escape(String labelValue) {
+		return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
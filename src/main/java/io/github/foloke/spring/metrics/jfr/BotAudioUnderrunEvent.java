@@ -0,0 +1,28 @@
+package io.github.foloke.spring.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Audio frame asked by the voice connection is not ready while a track is playing
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Name("huebot.AudioUnderrun")
+@Label("Audio Underrun")
+@Category({"HueBot", "Player"})
+@Description("No audio frame provided while the track is playing")
+@StackTrace(false)
+public class BotAudioUnderrunEvent extends Event {
+	@Label("Guild Id")
+	public String guildId;
+	@Label("Track Position")
+	@Timespan(Timespan.MILLISECONDS)
+	public long positionMillis;
+}
@@ -0,0 +1,73 @@
+package io.github.foloke.spring.metrics.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Continuous flight recording of the bot events (named {@code huebot.*}) and JVM events with the low overhead JDK
+ * "default" settings. Enabled by {@code FLIGHT_RECORDING=true}: the recording keeps the last
+ * {@code FLIGHT_RECORDING_MAX_AGE_MINUTES} on disk and is dumped to {@code FLIGHT_RECORDING_PATH} on shutdown, at any
+ * time it can be dumped by {@code jcmd <pid> JFR.dump name=huebot filename=dump.jfr}. The same recording can be
+ * started without the property by the JVM option
+ * {@code -XX:StartFlightRecording=name=huebot,settings=default,maxage=1h,dumponexit=true,filename=huebot.jfr}.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotFlightRecording {
+	private static final String RECORDING_NAME = "huebot";
+	private static final String SETTINGS_NAME = "default";
+	private final Logger log = LoggerFactory.getLogger(BotFlightRecording.class);
+	@Value("${flightRecording}")
+	private boolean flightRecording;
+	@Value("${flightRecordingPath}")
+	private String flightRecordingPath;
+	@Value("${flightRecordingMaxAgeMinutes}")
+	private long flightRecordingMaxAgeMinutes;
+	private Recording recording;
+
+	/**
+	 * Starts recording if enabled
+	 */
+	@PostConstruct
+	public void start() {
+		if (!flightRecording) {
+			return;
+		}
+		try {
+			recording = new Recording(Configuration.getConfiguration(SETTINGS_NAME));
+			recording.setName(RECORDING_NAME);
+			recording.setToDisk(true);
+			recording.setMaxAge(Duration.ofMinutes(flightRecordingMaxAgeMinutes));
+			recording.setDumpOnExit(true);
+			recording.setDestination(Paths.get(flightRecordingPath));
+			recording.start();
+			log.info(String.format("Flight recording started, dump file: %s", flightRecordingPath));
+		} catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+			log.warn("Flight recording is not started", e);
+		}
+	}
+
+	/**
+	 * Stops recording and writes it to the dump file (called by spring on context close)
+	 */
+	@PreDestroy
+	public void stop() {
+		if (recording != null) {
+			recording.stop();
+			recording.close();
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package io.github.foloke.spring.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Player gif render, event duration is the whole render
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Name("huebot.GifRender")
+@Label("Player GIF Render")
+@Category({"HueBot", "Player"})
+@Description("Player gif frames drawing and encoding")
+@StackTrace(false)
+public class BotGifRenderEvent extends Event {
+	@Label("Frames")
+	public int frames;
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+	@Label("Draw Duration")
+	@Timespan
+	public long drawNanos;
+	@Label("Encode Duration")
+	@Timespan
+	public long encodeNanos;
+}
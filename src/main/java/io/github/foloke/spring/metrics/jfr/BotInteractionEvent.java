@@ -0,0 +1,30 @@
+package io.github.foloke.spring.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Interaction acknowledgement
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Name("huebot.Interaction")
+@Label("Interaction")
+@Category({"HueBot", "Interactions"})
+@Description("Command interaction acknowledgement latency since its creation")
+@StackTrace(false)
+public class BotInteractionEvent extends Event {
+	@Label("Command")
+	public String command;
+	@Label("Ack Latency")
+	@Timespan(Timespan.MILLISECONDS)
+	public long ackMillis;
+	@Label("Missed")
+	public boolean missed;
+}
@@ -0,0 +1,29 @@
+package io.github.foloke.spring.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Player message edit, event duration is the edit request latency
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Name("huebot.MessageEdit")
+@Label("Player Message Edit")
+@Category({"HueBot", "Player"})
+@Description("Player message edit with the new gif attachment")
+@StackTrace(false)
+public class BotMessageEditEvent extends Event {
+	@Label("Guild Id")
+	public String guildId;
+	/**
+	 * OK, HTTP status of the rejected request or error class
+	 */
+	@Label("Status")
+	public String status;
+}
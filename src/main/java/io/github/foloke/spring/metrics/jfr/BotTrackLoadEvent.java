@@ -0,0 +1,31 @@
+package io.github.foloke.spring.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Identifier resolve by the audio sources (cache misses only), event duration is the resolve time
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Name("huebot.TrackLoad")
+@Label("Track Load")
+@Category({"HueBot", "Player"})
+@Description("Track or playlist resolved by the audio sources")
+@StackTrace(false)
+public class BotTrackLoadEvent extends Event {
+	@Label("Identifier")
+	public String identifier;
+	/**
+	 * Link host or search prefix
+	 */
+	@Label("Source")
+	public String source;
+	@Label("Result")
+	public String result;
+}
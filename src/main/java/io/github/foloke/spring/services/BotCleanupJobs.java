@@ -0,0 +1,222 @@
+package io.github.foloke.spring.services;
+
+import discord4j.common.util.Snowflake;
+import discord4j.discordjson.Id;
+import discord4j.rest.entity.RestChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Running bot messages cleanup jobs, at most one per channel and at most cleanupMaxJobs at all. Jobs of different
+ * channels run at the same time and can be cancelled.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class BotCleanupJobs {
+	private static final int BULK_DELETE_MAX_MESSAGES = 100;
+	/**
+	 * Discord bulk delete limit is 14 days, one hour is left for the clock difference and the deletion time
+	 */
+	private static final Duration BULK_DELETE_MAX_AGE = Duration.ofDays(14).minusHours(1);
+	private static final Duration PROGRESS_UPDATE_INTERVAL = Duration.ofSeconds(3);
+	private final Logger log = LoggerFactory.getLogger(BotCleanupJobs.class);
+	private final Map<Long, CleanupJob> channelIdToJob = new ConcurrentHashMap<>();
+	/**
+	 * Single message deletes in flight per job
+	 */
+	@Value("${cleanDeleteConcurrency}")
+	private int cleanDeleteConcurrency;
+	/**
+	 * Jobs running at the same time (of all channels)
+	 */
+	@Value("${cleanupMaxJobs}")
+	private int cleanupMaxJobs;
+
+	/**
+	 * Starts deleting author messages sent before the passed time
+	 *
+	 * @param onProgress called every few seconds while the job runs
+	 * @param onDone called once when the job is completed or cancelled
+	 * @return started job, empty if the channel already has one or too many jobs are running
+	 */
+	public Optional<CleanupJob> start(
+		RestChannel restChannel,
+		Snowflake authorId,
+		Instant before,
+		Consumer<CleanupJob> onProgress,
+		Consumer<CleanupJob> onDone
+	) {
+		CleanupJob job = new CleanupJob(restChannel.getId());
+		if (!register(job)) {
+			return Optional.empty();
+		}
+		log.info(String.format("Cleanup of channel %s started", job.channelId.asString()));
+		Disposable progressUpdates = Flux.interval(PROGRESS_UPDATE_INTERVAL)
+			.subscribe(tick -> onProgress.accept(job));
+		job.subscription.update(restChannel.getMessagesBefore(Snowflake.of(before))
+			.doOnNext(messageData -> job.scanned.incrementAndGet())
+			.filter(messageData -> messageData.author().id().equals(Id.of(authorId.asLong())))
+			.map(messageData -> Snowflake.of(messageData.id()))
+			.buffer(BULK_DELETE_MAX_MESSAGES)
+			.concatMap(messageIds -> deleteMessages(restChannel, messageIds, job))
+			.doFinally(signal -> {
+				progressUpdates.dispose();
+				channelIdToJob.remove(job.channelId.asLong(), job);
+				log.info(String.format(
+					"Cleanup of channel %s finished (%s), %d messages deleted",
+					job.channelId.asString(),
+					signal,
+					job.getDeleted()
+				));
+				onDone.accept(job);
+			})
+			.subscribe(null, throwable -> log.error("Mesage cleananing error", throwable))
+		);
+		return Optional.of(job);
+	}
+
+	private synchronized boolean register(CleanupJob job) {
+		if (channelIdToJob.size() >= cleanupMaxJobs) {
+			log.warn(String.format("Cleanup of channel %s is rejected, too many jobs", job.channelId.asString()));
+			return false;
+		}
+		return channelIdToJob.putIfAbsent(job.channelId.asLong(), job) == null;
+	}
+
+	/**
+	 * Running job of the channel
+	 */
+	public Optional<CleanupJob> getJob(Snowflake channelId) {
+		return Optional.ofNullable(channelIdToJob.get(channelId.asLong()));
+	}
+
+	/**
+	 * All running jobs
+	 */
+	public List<CleanupJob> getJobs() {
+		return new ArrayList<>(channelIdToJob.values());
+	}
+
+	/**
+	 * Cancels job of the channel, its done callback is still called
+	 *
+	 * @return cancelled job, empty if the channel has no job
+	 */
+	public Optional<CleanupJob> cancel(Snowflake channelId) {
+		Optional<CleanupJob> job = getJob(channelId);
+		job.ifPresent(CleanupJob::cancel);
+		return job;
+	}
+
+	/**
+	 * Cancels running jobs (called by spring on context close)
+	 */
+	@PreDestroy
+	public void shutdown() {
+		getJobs().forEach(CleanupJob::cancel);
+	}
+
+	/**
+	 * Messages younger than 14 days are deleted by one bulk request, older ones (and rejected by bulk delete)
+	 * one by one. Delete requests wait in the Discord rate limit bucket, concurrency only keeps the bucket busy.
+	 */
+	private Mono<Void> deleteMessages(RestChannel restChannel, List<Snowflake> messageIds, CleanupJob job) {
+		Instant bulkDeleteLimit = Instant.now().minus(BULK_DELETE_MAX_AGE);
+		Map<Boolean, List<Snowflake>> isRecentToMessageIds = messageIds.stream()
+			.collect(Collectors.partitioningBy(messageId -> messageId.getTimestamp().isAfter(bulkDeleteLimit)));
+		List<Snowflake> recentMessageIds = isRecentToMessageIds.get(true);
+		Mono<Void> bulkDelete = recentMessageIds.isEmpty()
+			? Mono.empty()
+			: restChannel.bulkDelete(Flux.fromIterable(recentMessageIds))
+				.collectList()
+				.flatMap(rejectedMessageIds -> {
+					job.deleted.addAndGet(recentMessageIds.size() - rejectedMessageIds.size());
+					return deleteEach(restChannel, rejectedMessageIds, job);
+				});
+		return bulkDelete.then(deleteEach(restChannel, isRecentToMessageIds.get(false), job));
+	}
+
+	private Mono<Void> deleteEach(RestChannel restChannel, List<Snowflake> messageIds, CleanupJob job) {
+		return Flux.fromIterable(messageIds)
+			.flatMap(messageId -> restChannel.getRestMessage(messageId)
+				.delete(null)
+				.doOnSuccess(ignored -> job.deleted.incrementAndGet())
+				.onErrorResume(throwable -> {
+					log.warn(String.format("Message %s is not deleted", messageId.asString()), throwable);
+					return Mono.empty();
+				}), cleanDeleteConcurrency
+			)
+			.then();
+	}
+
+	/**
+	 * Cleanup job of one channel
+	 */
+	public static final class CleanupJob {
+		private final Snowflake channelId;
+		private final Instant startedAt = Instant.now();
+		private final AtomicLong scanned = new AtomicLong();
+		private final AtomicLong deleted = new AtomicLong();
+		/**
+		 * Created before the job is subscribed, so the cancel disposes the subscription made after it too
+		 */
+		private final Disposable.Swap subscription = Disposables.swap();
+		private volatile boolean cancelled;
+
+		private CleanupJob(Snowflake channelId) {
+			this.channelId = channelId;
+		}
+
+		private void cancel() {
+			cancelled = true;
+			subscription.dispose();
+		}
+
+		public Snowflake getChannelId() {
+			return channelId;
+		}
+
+		/**
+		 * Channel messages looked through (of any author)
+		 */
+		public long getScanned() {
+			return scanned.get();
+		}
+
+		public long getDeleted() {
+			return deleted.get();
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Mean deleted messages per second since the start
+		 */
+		public double getDeletedPerSecond() {
+			long elapsedMillis = Math.max(1, Duration.between(startedAt, Instant.now()).toMillis());
+			return deleted.get() * 1000.0 / elapsedMillis;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.foloke.spring.services;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring of the cluster nodes. Shards are assigned to nodes by the ring, so when a node joins or leaves
+ * only the shards of its ring segments move.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotClusterRing {
+	private static final String NODES_SEPARATOR = ",";
+	private static final String VIRTUAL_NODE_FORMAT = "%s#%d";
+	private static final String SHARD_KEY_FORMAT = "shard-%d";
+	private final Logger log = LoggerFactory.getLogger(BotClusterRing.class);
+	private final NavigableMap<Long, String> ring = new TreeMap<>();
+	/**
+	 * Ids of all the cluster nodes, empty to run without cluster
+	 */
+	@Value("${clusterNodes}")
+	private String clusterNodes;
+	/**
+	 * Id of this node, one of clusterNodes
+	 */
+	@Value("${clusterNodeId}")
+	private String clusterNodeId;
+	/**
+	 * Points of every node on the ring, more points spread shards more evenly
+	 */
+	@Value("${clusterVirtualNodes}")
+	private int clusterVirtualNodes;
+
+	/**
+	 * Builds ring from configured nodes
+	 */
+	@PostConstruct
+	public void init() {
+		Arrays.stream(clusterNodes.split(NODES_SEPARATOR))
+			.map(String::trim)
+			.filter(nodeId -> !nodeId.isEmpty())
+			.forEach(nodeId -> {
+				for (int i = 0; i < clusterVirtualNodes; i++) {
+					ring.put(hash(String.format(VIRTUAL_NODE_FORMAT, nodeId, i)), nodeId);
+				}
+			});
+		if (isEnabled()) {
+			if (!ring.containsValue(clusterNodeId)) {
+				throw new IllegalStateException(String.format("Node %s is not in cluster nodes", clusterNodeId));
+			}
+			log.info(String.format("Cluster node %s of %s", clusterNodeId, clusterNodes));
+		}
+	}
+
+	public boolean isEnabled() {
+		return !ring.isEmpty();
+	}
+
+	public String getNodeId() {
+		return clusterNodeId;
+	}
+
+	/**
+	 * Node owning the shard, the first ring point after the shard hash
+	 */
+	public String getOwnerNode(int shardIndex) {
+		long shardHash = hash(String.format(SHARD_KEY_FORMAT, shardIndex));
+		Map.Entry<Long, String> owner = ring.ceilingEntry(shardHash);
+		return (owner == null ? ring.firstEntry() : owner).getValue();
+	}
+
+	/**
+	 * Is shard owned by this node (always true without cluster)
+	 */
+	public boolean isOwned(int shardIndex) {
+		return !isEnabled() || clusterNodeId.equals(getOwnerNode(shardIndex));
+	}
+
+	private static long hash(String key) {
+		return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+	}
+}
@@ -0,0 +1,211 @@
+package io.github.foloke.spring.services;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.gateway.GatewayClient;
+import discord4j.gateway.GatewayOptions;
+import discord4j.gateway.IdentifyOptions;
+import io.github.foloke.spring.services.BotVoiceStateCache.VoiceMember;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Gateway sessions kept between restarts. On graceful shutdown every shard session id and sequence are saved and the
+ * connections are closed as resumable, the next start resumes fresh sessions instead of identifying. If Discord
+ * rejects the resume, the shard identifies as usual. Resumed session gets no guild snapshots, so voice states of the
+ * shard guilds are saved with the session and restored on resume (the gateway replays the changes missed since).
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotGatewaySessions {
+	private static final String SAVED_AT_KEY = "savedAt";
+	private static final String SESSION_ID_KEY_FORMAT = "shard.%d.sessionId";
+	private static final String SEQUENCE_KEY_FORMAT = "shard.%d.sequence";
+	private static final String GUILDS_KEY_FORMAT = "shard.%d.guilds";
+	private static final String VOICE_KEY_PREFIX_FORMAT = "shard.%d.voice.";
+	private static final String VOICE_KEY_FORMAT = VOICE_KEY_PREFIX_FORMAT + "%d.%d";
+	private static final String VALUES_SEPARATOR = ",";
+	private final Logger log = LoggerFactory.getLogger(BotGatewaySessions.class);
+	private final GatewayDiscordClient discordClient;
+	private final BotVoiceStateCache voiceStateCache;
+	private final Properties savedSessions = new Properties();
+	/**
+	 * File to keep sessions between restarts, empty to always identify
+	 */
+	@Value("${gatewaySessionPath}")
+	private String gatewaySessionPath;
+	/**
+	 * Saved sessions older than this are not resumed (Discord drops them soon after disconnect)
+	 */
+	@Value("${gatewaySessionMaxAgeSeconds}")
+	private long gatewaySessionMaxAgeSeconds;
+	private boolean sessionsLoaded;
+
+	@Autowired
+	public BotGatewaySessions(@Lazy GatewayDiscordClient discordClient, BotVoiceStateCache voiceStateCache) {
+		this.discordClient = discordClient;
+		this.voiceStateCache = voiceStateCache;
+	}
+
+	/**
+	 * Gateway options with resume data of the shard saved by the previous run, unchanged if there is none
+	 */
+	public GatewayOptions withResume(GatewayOptions options) {
+		IdentifyOptions identifyOptions = options.getIdentifyOptions();
+		int shardIndex = identifyOptions.getShardInfo().getIndex();
+		Optional<String> sessionId = getSavedSession(String.format(SESSION_ID_KEY_FORMAT, shardIndex));
+		Optional<String> sequence = getSavedSession(String.format(SEQUENCE_KEY_FORMAT, shardIndex));
+		if (!sessionId.isPresent() || !sequence.isPresent()) {
+			return options;
+		}
+		log.info(String.format("Resuming shard %d session", shardIndex));
+		restoreVoiceStates(shardIndex);
+		return new GatewayOptions(
+			options.getToken(),
+			options.getReactorResources(),
+			options.getPayloadReader(),
+			options.getPayloadWriter(),
+			options.getReconnectOptions(),
+			IdentifyOptions.builder(identifyOptions.getShardInfo(), identifyOptions.getIntents().orElse(null))
+				.initialStatus(identifyOptions.getInitialStatus().orElse(null))
+				.largeThreshold(identifyOptions.getLargeThreshold().orElse(null))
+				.resumeSessionId(sessionId.get())
+				.resumeSequence(Integer.parseInt(sequence.get()))
+				.build(),
+			options.getInitialObserver(),
+			options.getIdentifyLimiter(),
+			options.getMaxMissedHeartbeatAck(),
+			options.isUnpooled()
+		);
+	}
+
+	private synchronized Optional<String> getSavedSession(String key) {
+		if (!sessionsLoaded && !gatewaySessionPath.isEmpty()) {
+			sessionsLoaded = true;
+			Path path = Paths.get(gatewaySessionPath);
+			if (Files.exists(path)) {
+				try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+					savedSessions.load(reader);
+					// sessions can be resumed only once
+					Files.delete(path);
+				} catch (IOException e) {
+					log.warn("Gateway sessions are not loaded", e);
+				}
+			}
+			Instant savedAt = Instant.ofEpochMilli(Long.parseLong(savedSessions.getProperty(SAVED_AT_KEY, "0")));
+			if (Duration.between(savedAt, Instant.now()).getSeconds() > gatewaySessionMaxAgeSeconds) {
+				savedSessions.clear();
+			}
+		}
+		return Optional.ofNullable(savedSessions.getProperty(key));
+	}
+
+	/**
+	 * Every guild of the shard is restored, guilds with nobody in voice too (their updates must not be ignored)
+	 */
+	private synchronized void restoreVoiceStates(int shardIndex) {
+		Map<Long, Map<Long, VoiceMember>> guildIdToVoiceMembers = new HashMap<>();
+		try {
+			String guilds = savedSessions.getProperty(String.format(GUILDS_KEY_FORMAT, shardIndex), "");
+			Arrays.stream(guilds.split(VALUES_SEPARATOR))
+				.filter(guildId -> !guildId.isEmpty())
+				.forEach(guildId -> guildIdToVoiceMembers.put(Long.parseLong(guildId), new HashMap<>()));
+			String voiceKeyPrefix = String.format(VOICE_KEY_PREFIX_FORMAT, shardIndex);
+			for (String key : savedSessions.stringPropertyNames()) {
+				String[] ids = key.startsWith(voiceKeyPrefix)
+					? key.substring(voiceKeyPrefix.length()).split("\\.")
+					: new String[0];
+				Map<Long, VoiceMember> voiceMembers = ids.length == 2
+					? guildIdToVoiceMembers.get(Long.parseLong(ids[0]))
+					: null;
+				if (voiceMembers != null) {
+					// channel id, bot flag and display name (absent if member data was not received)
+					String[] values = savedSessions.getProperty(key).split(VALUES_SEPARATOR, 3);
+					voiceMembers.put(Long.parseLong(ids[1]), new VoiceMember(
+						Long.parseLong(values[0]),
+						values.length == 3 ? values[2] : null,
+						values.length > 1 && Boolean.parseBoolean(values[1])
+					));
+				}
+			}
+		} catch (NumberFormatException e) {
+			log.warn(String.format("Shard %d voice states are not restored", shardIndex), e);
+			return;
+		}
+		guildIdToVoiceMembers.forEach(voiceStateCache::restore);
+		log.info(String.format("Shard %d voice states restored: %d guilds", shardIndex, guildIdToVoiceMembers.size()));
+	}
+
+	/**
+	 * Saves sessions and closes shards keeping sessions resumable (called by spring on context close)
+	 */
+	@PreDestroy
+	public void saveSessions() {
+		if (gatewaySessionPath.isEmpty()) {
+			return;
+		}
+		Properties sessions = new Properties();
+		sessions.setProperty(SAVED_AT_KEY, Long.toString(System.currentTimeMillis()));
+		int shardCount = discordClient.getGatewayClientGroup().getShardCount();
+		for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+			int index = shardIndex;
+			discordClient.getGatewayClient(index).ifPresent(gatewayClient -> {
+				gatewayClient.close(true).block();
+				saveSession(sessions, index, gatewayClient);
+			});
+		}
+		saveVoiceStates(sessions, shardCount);
+		try (Writer writer = Files.newBufferedWriter(Paths.get(gatewaySessionPath), StandardCharsets.UTF_8)) {
+			sessions.store(writer, null);
+			log.info("Gateway sessions saved");
+		} catch (IOException e) {
+			log.warn("Gateway sessions are not saved", e);
+		}
+	}
+
+	private void saveVoiceStates(Properties sessions, int shardCount) {
+		voiceStateCache.getSnapshot().forEach((guildId, voiceMembers) -> {
+			int shardIndex = BotShards.getShardIndex(guildId, shardCount);
+			String guildsKey = String.format(GUILDS_KEY_FORMAT, shardIndex);
+			String guilds = sessions.getProperty(guildsKey);
+			sessions.setProperty(guildsKey, guilds == null ? guildId.toString() : guilds + VALUES_SEPARATOR + guildId);
+			voiceMembers.forEach((userId, voiceMember) -> {
+				String value = voiceMember.getChannelId() + VALUES_SEPARATOR + voiceMember.isBot()
+					+ voiceMember.getDisplayName().map(displayName -> VALUES_SEPARATOR + displayName).orElse("");
+				sessions.setProperty(String.format(VOICE_KEY_FORMAT, shardIndex, guildId, userId), value);
+			});
+		});
+	}
+
+	private static void saveSession(Properties sessions, int shardIndex, GatewayClient gatewayClient) {
+		String sessionId = gatewayClient.getSessionId();
+		if (sessionId != null && !sessionId.isEmpty()) {
+			sessions.setProperty(String.format(SESSION_ID_KEY_FORMAT, shardIndex), sessionId);
+			sessions.setProperty(
+				String.format(SEQUENCE_KEY_FORMAT, shardIndex),
+				Integer.toString(gatewayClient.getSequence())
+			);
+		}
+	}
+}
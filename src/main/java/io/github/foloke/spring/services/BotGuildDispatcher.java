@@ -0,0 +1,399 @@
+package io.github.foloke.spring.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs blocking event handlers off the Discord event threads. Every guild has its own serial queue: handlers of one
+ * guild run in order, one at a time, while different guilds of a shard share the shard executor. Shard executor is a
+ * pool of {@code dispatcherThreads} platform threads or, if the runtime has virtual threads and they are enabled, a
+ * virtual thread per handler with at most {@code dispatcherVirtualConcurrency} handlers running. A guild holds at most
+ * one thread, so a stuck handler delays only its guild, and a busy shard doesn't take threads of the others. Queues
+ * of idle guilds are dropped.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotGuildDispatcher {
+	/**
+	 * Queue key for events without guild (DMs)
+	 */
+	public static final long NO_GUILD_ID = 0;
+	private static final String THREAD_NAME_PREFIX_FORMAT = "guild-dispatcher-%d-";
+	/**
+	 * Max wait is reported over the current and the previous window
+	 */
+	private static final long MAX_WAIT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+	private static final ThreadLocal<Long> CURRENT_GUILD_ID = new ThreadLocal<>();
+	private final Logger log = LoggerFactory.getLogger(BotGuildDispatcher.class);
+	private final Map<Long, GuildQueue> guildIdToQueue = new ConcurrentHashMap<>();
+	private final Map<Integer, ShardDispatcher> shardIndexToDispatcher = new ConcurrentHashMap<>();
+	@Value("${dispatcherThreads}")
+	private int dispatcherThreads;
+	@Value("${dispatcherVirtualThreads}")
+	private boolean dispatcherVirtualThreads;
+	/**
+	 * Handlers running at the same time per shard on virtual threads (blocked virtual thread holds no platform one)
+	 */
+	@Value("${dispatcherVirtualConcurrency}")
+	private int dispatcherVirtualConcurrency;
+	private boolean virtualThreadsSupported;
+
+	/**
+	 * Checks virtual threads support if enabled
+	 */
+	@PostConstruct
+	public void init() {
+		if (dispatcherVirtualThreads) {
+			virtualThreadsSupported = createVirtualThreadFactory("").isPresent();
+			log.info(virtualThreadsSupported
+				? "Guild dispatcher uses virtual threads"
+				: "Virtual threads are not supported, guild dispatcher uses platform threads"
+			);
+		}
+	}
+
+	private ShardDispatcher getShardDispatcher(int shardIndex) {
+		return shardIndexToDispatcher.computeIfAbsent(shardIndex, index -> {
+			String namePrefix = String.format(THREAD_NAME_PREFIX_FORMAT, index);
+			Optional<ThreadFactory> virtualThreadFactory = virtualThreadsSupported
+				? createVirtualThreadFactory(namePrefix)
+				: Optional.empty();
+			if (virtualThreadFactory.isPresent()) {
+				return new ShardDispatcher(new BoundedThreadPerTaskExecutor(
+					virtualThreadFactory.get(),
+					dispatcherVirtualConcurrency
+				));
+			}
+			return new ShardDispatcher(
+				Executors.newFixedThreadPool(dispatcherThreads, createPlatformThreadFactory(namePrefix))
+			);
+		});
+	}
+
+	private static ThreadFactory createPlatformThreadFactory(String namePrefix) {
+		AtomicInteger threadsCount = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, namePrefix + threadsCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Virtual threads factory (Java 21+), empty if not supported by the runtime
+	 */
+	private static Optional<ThreadFactory> createVirtualThreadFactory(String namePrefix) {
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+			return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+		} catch (ReflectiveOperationException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Queues task to the guild serial queue
+	 *
+	 * @param shardIndex shard that received the event
+	 */
+	public void dispatch(int shardIndex, long guildId, Runnable task) {
+		dispatch(shardIndex, guildId, CompletableFuture.completedFuture(null), task);
+	}
+
+	/**
+	 * Queues task to the guild serial queue, the task starts after the ready future completes (successfully or not).
+	 * Waiting task holds no thread, but the guild tasks queued after it wait too, so they keep the arrival order.
+	 *
+	 * @param shardIndex shard that received the event
+	 */
+	public void dispatch(int shardIndex, long guildId, CompletableFuture<?> ready, Runnable task) {
+		QueuedTask queuedTask = new QueuedTask(task, ready, System.nanoTime());
+		boolean[] schedule = new boolean[1];
+		// queue is created, filled and dropped under the map lock of the guild, so a guild never has two queues
+		GuildQueue guildQueue = guildIdToQueue.compute(guildId, (id, queue) -> {
+			GuildQueue currentQueue = queue == null
+				? new GuildQueue(id, shardIndex, getShardDispatcher(shardIndex))
+				: queue;
+			schedule[0] = currentQueue.add(queuedTask);
+			return currentQueue;
+		});
+		if (schedule[0]) {
+			guildQueue.shardDispatcher.executor.execute(guildQueue);
+		}
+	}
+
+	/**
+	 * Guild whose handler runs on the current thread, empty out of the guild queues and for events without guild
+	 */
+	public static Optional<Long> getCurrentGuildId() {
+		return Optional.ofNullable(CURRENT_GUILD_ID.get());
+	}
+
+	/**
+	 * Queue stats summed over guilds of every shard
+	 */
+	public Map<Integer, GuildQueueStats> getShardStats() {
+		Map<Integer, Integer> shardIndexToDepth = new TreeMap<>();
+		guildIdToQueue.values().forEach(queue ->
+			shardIndexToDepth.merge(queue.shardIndex, queue.getDepth(), Integer::sum)
+		);
+		Map<Integer, GuildQueueStats> stats = new TreeMap<>();
+		shardIndexToDispatcher.forEach((shardIndex, shardDispatcher) -> stats.put(
+			shardIndex,
+			shardDispatcher.getStats(shardIndexToDepth.getOrDefault(shardIndex, 0))
+		));
+		return stats;
+	}
+
+	/**
+	 * Stops pools (called by spring on context close), virtual threads are not waited for
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		for (ShardDispatcher shardDispatcher : shardIndexToDispatcher.values()) {
+			if (shardDispatcher.executor instanceof ExecutorService) {
+				((ExecutorService) shardDispatcher.executor).shutdown();
+			}
+		}
+		for (ShardDispatcher shardDispatcher : shardIndexToDispatcher.values()) {
+			if (shardDispatcher.executor instanceof ExecutorService) {
+				((ExecutorService) shardDispatcher.executor).awaitTermination(5, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Shard executor with the stats of its guild queues
+	 */
+	private static final class ShardDispatcher {
+		private final Executor executor;
+		private final LongAdder completedCount = new LongAdder();
+		private final LongAdder totalWaitNanos = new LongAdder();
+		private long windowStartNanos = System.nanoTime();
+		private long windowMaxWaitNanos;
+		private long previousWindowMaxWaitNanos;
+
+		private ShardDispatcher(Executor executor) {
+			this.executor = executor;
+		}
+
+		private void recordWait(long waitNanos) {
+			totalWaitNanos.add(waitNanos);
+			synchronized (this) {
+				rollWindow();
+				windowMaxWaitNanos = Math.max(windowMaxWaitNanos, waitNanos);
+			}
+		}
+
+		private void rollWindow() {
+			long elapsedNanos = System.nanoTime() - windowStartNanos;
+			if (elapsedNanos >= MAX_WAIT_WINDOW_NANOS) {
+				previousWindowMaxWaitNanos = elapsedNanos < MAX_WAIT_WINDOW_NANOS * 2 ? windowMaxWaitNanos : 0;
+				windowMaxWaitNanos = 0;
+				windowStartNanos += elapsedNanos - elapsedNanos % MAX_WAIT_WINDOW_NANOS;
+			}
+		}
+
+		private synchronized GuildQueueStats getStats(int queueDepth) {
+			rollWindow();
+			return new GuildQueueStats(
+				queueDepth,
+				completedCount.sum(),
+				totalWaitNanos.sum(),
+				Math.max(windowMaxWaitNanos, previousWindowMaxWaitNanos)
+			);
+		}
+	}
+
+	/**
+	 * New thread per task, tasks over the limit wait in the queue without holding a thread
+	 */
+	private static final class BoundedThreadPerTaskExecutor implements Executor {
+		private final ThreadFactory threadFactory;
+		private final Semaphore permits;
+		private final Queue<Runnable> waitingTasks = new ConcurrentLinkedQueue<>();
+
+		private BoundedThreadPerTaskExecutor(ThreadFactory threadFactory, int maxRunningTasks) {
+			this.threadFactory = threadFactory;
+			permits = new Semaphore(maxRunningTasks);
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			waitingTasks.add(task);
+			startWaitingTasks();
+		}
+
+		/**
+		 * Task is queued before the permit is tried and the permit is released before the queue is checked, so a
+		 * queued task is always started by one of the sides
+		 */
+		private void startWaitingTasks() {
+			while (!waitingTasks.isEmpty() && permits.tryAcquire()) {
+				Runnable task = waitingTasks.poll();
+				if (task == null) {
+					permits.release();
+					continue;
+				}
+				threadFactory.newThread(() -> {
+					try {
+						task.run();
+					} finally {
+						permits.release();
+						startWaitingTasks();
+					}
+				}).start();
+			}
+		}
+	}
+
+	/**
+	 * Guild serial queue. Only one drain task of the queue is in the shard executor at a time, it runs one handler
+	 * and resubmits itself, so guilds take turns on the threads. If the next handler is not ready, the drain task
+	 * leaves the thread and is resubmitted when it is. Drained queue is removed from the guild queues.
+	 */
+	private final class GuildQueue implements Runnable {
+		private final long guildId;
+		private final int shardIndex;
+		private final ShardDispatcher shardDispatcher;
+		private final Queue<QueuedTask> tasks = new ArrayDeque<>();
+		private boolean running;
+
+		private GuildQueue(long guildId, int shardIndex, ShardDispatcher shardDispatcher) {
+			this.guildId = guildId;
+			this.shardIndex = shardIndex;
+			this.shardDispatcher = shardDispatcher;
+		}
+
+		/**
+		 * @return should the drain task be scheduled
+		 */
+		private synchronized boolean add(QueuedTask queuedTask) {
+			tasks.add(queuedTask);
+			boolean schedule = !running;
+			running = true;
+			return schedule;
+		}
+
+		@Override
+		public void run() {
+			QueuedTask queuedTask;
+			synchronized (this) {
+				queuedTask = tasks.peek();
+				if (queuedTask != null && !queuedTask.ready.isDone()) {
+					queuedTask.ready.whenComplete((result, throwable) -> shardDispatcher.executor.execute(this));
+					return;
+				}
+				tasks.poll();
+			}
+			if (queuedTask != null) {
+				shardDispatcher.recordWait(System.nanoTime() - queuedTask.queuedNanos);
+				if (guildId != NO_GUILD_ID) {
+					CURRENT_GUILD_ID.set(guildId);
+				}
+				try {
+					queuedTask.task.run();
+				} catch (Exception e) {
+					log.error(String.format("Guild %d event handler error", guildId), e);
+				} finally {
+					CURRENT_GUILD_ID.remove();
+				}
+				shardDispatcher.completedCount.increment();
+			}
+			boolean[] reschedule = new boolean[1];
+			guildIdToQueue.computeIfPresent(guildId, (id, queue) -> {
+				synchronized (this) {
+					reschedule[0] = !tasks.isEmpty();
+					running = reschedule[0];
+				}
+				return queue == this && !reschedule[0] ? null : queue;
+			});
+			if (reschedule[0]) {
+				shardDispatcher.executor.execute(this);
+			}
+		}
+
+		private synchronized int getDepth() {
+			return tasks.size();
+		}
+	}
+
+	private static final class QueuedTask {
+		private final Runnable task;
+		private final CompletableFuture<?> ready;
+		private final long queuedNanos;
+
+		private QueuedTask(Runnable task, CompletableFuture<?> ready, long queuedNanos) {
+			this.task = task;
+			this.ready = ready;
+			this.queuedNanos = queuedNanos;
+		}
+	}
+
+	/**
+	 * Shard queues stats snapshot
+	 */
+	public static final class GuildQueueStats {
+		private final int queueDepth;
+		private final long completedCount;
+		private final long totalWaitNanos;
+		private final long maxWaitNanos;
+
+		private GuildQueueStats(int queueDepth, long completedCount, long totalWaitNanos, long maxWaitNanos) {
+			this.queueDepth = queueDepth;
+			this.completedCount = completedCount;
+			this.totalWaitNanos = totalWaitNanos;
+			this.maxWaitNanos = maxWaitNanos;
+		}
+
+		/**
+		 * Tasks waiting in the queues
+		 */
+		public int getQueueDepth() {
+			return queueDepth;
+		}
+
+		public long getCompletedCount() {
+			return completedCount;
+		}
+
+		/**
+		 * Mean time from dispatch to start
+		 */
+		public long getMeanWaitMillis() {
+			return completedCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / completedCount);
+		}
+
+		/**
+		 * Max time from dispatch to start over the last one to two minutes
+		 */
+		public long getMaxWaitMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package io.github.foloke.spring.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Members ratings for teams balancing, per guild. Ratings are kept in memory and saved to a local file on change.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class BotMatchmakingRatings {
+	private static final String KEY_FORMAT = "%d.%d";
+	private final Logger log = LoggerFactory.getLogger(BotMatchmakingRatings.class);
+	private final Map<String, Integer> keyToRating = new ConcurrentHashMap<>();
+	/**
+	 * Ratings file, empty to keep ratings only in memory
+	 */
+	@Value("${ratingsPath}")
+	private String ratingsPath;
+
+	/**
+	 * Loads saved ratings
+	 */
+	@PostConstruct
+	public void loadRatings() {
+		if (ratingsPath.isEmpty() || !Files.exists(Paths.get(ratingsPath))) {
+			return;
+		}
+		Properties ratings = new Properties();
+		try (Reader reader = Files.newBufferedReader(Paths.get(ratingsPath), StandardCharsets.UTF_8)) {
+			ratings.load(reader);
+			for (String key : ratings.stringPropertyNames()) {
+				keyToRating.put(key, Integer.parseInt(ratings.getProperty(key)));
+			}
+		} catch (IOException | NumberFormatException e) {
+			log.warn("Matchmaking ratings are not loaded", e);
+		}
+	}
+
+	public OptionalInt getRating(long guildId, long userId) {
+		Integer rating = keyToRating.get(String.format(KEY_FORMAT, guildId, userId));
+		return rating == null ? OptionalInt.empty() : OptionalInt.of(rating);
+	}
+
+	/**
+	 * Sets member rating and saves all the ratings
+	 */
+	public synchronized void setRating(long guildId, long userId, int rating) {
+		keyToRating.put(String.format(KEY_FORMAT, guildId, userId), rating);
+		if (ratingsPath.isEmpty()) {
+			return;
+		}
+		Properties ratings = new Properties();
+		keyToRating.forEach((key, value) -> ratings.setProperty(key, Integer.toString(value)));
+		Path path = Paths.get(ratingsPath);
+		try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			ratings.store(writer, null);
+		} catch (IOException e) {
+			log.warn("Matchmaking ratings are not saved", e);
+		}
+	}
+}
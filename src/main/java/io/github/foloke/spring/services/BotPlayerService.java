@@ -5,24 +5,27 @@ import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
 import discord4j.core.event.domain.interaction.DeferrableInteractionEvent;
+import discord4j.core.object.VoiceState;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
 import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
 import discord4j.core.object.command.Interaction;
 import discord4j.core.object.component.ActionRow;
 import discord4j.core.object.component.Button;
 import discord4j.core.object.component.LayoutComponent;
+import discord4j.core.object.entity.Member;
 import discord4j.core.object.entity.channel.VoiceChannel;
 import discord4j.core.object.reaction.ReactionEmoji;
-import discord4j.core.spec.InteractionApplicationCommandCallbackSpec;
 import discord4j.core.spec.InteractionReplyEditSpec;
 import discord4j.core.spec.MessageCreateSpec;
 import discord4j.core.spec.VoiceChannelJoinSpec;
-import discord4j.voice.VoiceConnection;
 import io.github.foloke.PlayerAccessException;
 import io.github.foloke.player.AddToQueueException;
 import io.github.foloke.player.BotGuildPlayer;
+import io.github.foloke.player.BotQueue;
+import io.github.foloke.player.BotQueueLoadProgress;
 import io.github.foloke.player.BotRepeatState;
 import io.github.foloke.spring.services.localization.BotLocalization;
+import io.github.foloke.utils.BotReplyEditor;
 import io.github.foloke.utils.commands.BotButtonCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,8 +36,11 @@ import org.springframework.stereotype.Service;
 import reactor.util.retry.Retry;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import static io.github.foloke.spring.config.BotConfig.UI_BUTTONS_QUALIFIER;
@@ -47,6 +53,8 @@ import static io.github.foloke.spring.config.BotConfig.UI_BUTTONS_QUALIFIER;
  */
 @Service
 public final class BotPlayerService {
+	public static final int MAX_LINKS_PER_COMMAND = 10;
+	private static final String LINKS_SEPARATOR_REGEX = "[,\\r\\n]+";
 	private static final String CONNECT_EVENT_LOG_MESSAGE = "Connect event";
 	private static final String ALREADY_CONNECTED_LOG_MESSAGE = "already connected";
 	private static final String DISCONNECTED_FROM_OLD_CHANNEL_LOG_MESSAGE = "disconnected from old channel";
@@ -56,18 +64,21 @@ public final class BotPlayerService {
 	private final GatewayDiscordClient discordClient;
 	private final BotPlayersHolder botPlayersHolder;
 	private final List<BotButtonCommand> botButtonCommandList;
+	private final BotVoiceStateCache voiceStateCache;
 
 	@Autowired
 	private BotPlayerService(
 		BotLocalization playerLocalization,
 		@Lazy GatewayDiscordClient discordClient,
 		BotPlayersHolder botPlayersHolder,
-		@Qualifier(UI_BUTTONS_QUALIFIER) List<BotButtonCommand> botButtonCommandList
+		@Qualifier(UI_BUTTONS_QUALIFIER) List<BotButtonCommand> botButtonCommandList,
+		BotVoiceStateCache voiceStateCache
 	) {
 		this.playerLocalization = playerLocalization;
 		this.discordClient = discordClient;
 		this.botPlayersHolder = botPlayersHolder;
 		this.botButtonCommandList = new ArrayList<>(botButtonCommandList);
+		this.voiceStateCache = voiceStateCache;
 	}
 
 	/**
@@ -130,22 +141,34 @@ public final class BotPlayerService {
 		return layoutComponentList;
 	}
 
-	private boolean isAlreadyConnected(VoiceChannel userVoiceChannel) {
-		Snowflake guildId = userVoiceChannel.getGuildId();
-		Optional<VoiceConnection> botVoiceConnection = discordClient.getVoiceConnectionRegistry()
-			.getVoiceConnection(guildId)
+	/**
+	 * Bot is in the user channel by gateway voice state and its voice connection is still registered (both are kept
+	 * in memory, no REST calls)
+	 */
+	private boolean isAlreadyConnected(Snowflake guildId, Snowflake userVoiceChannelId) {
+		boolean inUserChannel = voiceStateCache.getBotChannelId(guildId)
+			.map(userVoiceChannelId::equals)
+			.orElse(false);
+		if (inUserChannel && discordClient.getVoiceConnectionRegistry().getVoiceConnection(guildId)
 			.blockOptional()
-			.filter(voiceConnection -> Boolean.TRUE.equals(voiceConnection.isConnected().block()));
-		Optional<Snowflake> botVoiceChannelId =
-			botVoiceConnection.map(voiceConnection -> voiceConnection.getChannelId().block());
-
-		if (botVoiceChannelId.map(id -> id.equals(userVoiceChannel.getId())).orElse(false)) {
+			.isPresent()
+		) {
 			log.info(ALREADY_CONNECTED_LOG_MESSAGE);
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * User voice channel from gateway voice states, REST is requested only if the guild wasn't received yet
+	 */
+	private Optional<Snowflake> getUserVoiceChannelId(Snowflake guildId, Member member) {
+		if (voiceStateCache.isGuildLoaded(guildId)) {
+			return voiceStateCache.getChannelId(guildId, member.getId());
+		}
+		return member.getVoiceState().blockOptional().flatMap(VoiceState::getChannelId);
+	}
+
 	/**
 	 * Tries to connect to the channel.
 	 *
@@ -156,12 +179,15 @@ public final class BotPlayerService {
 		log.info(CONNECT_EVENT_LOG_MESSAGE);
 		BotGuildPlayer guildBotGuildPlayer = botPlayersHolder.getBotPlayer(guildId);
 
-		Optional<VoiceChannel> voiceChannelOptional = interaction.getMember()
-			.map(member -> member.getVoiceState().block())
-			.map(voiceState -> voiceState.getChannel().block());
+		Optional<Snowflake> voiceChannelIdOptional = interaction.getMember()
+			.flatMap(member -> getUserVoiceChannelId(guildId, member));
 
-		if (voiceChannelOptional.isPresent()) {
-			voiceChannelOptional.filter(voiceChannel -> !isAlreadyConnected(voiceChannel))
+		if (voiceChannelIdOptional.isPresent()) {
+			voiceChannelIdOptional.filter(voiceChannelId -> !isAlreadyConnected(guildId, voiceChannelId))
+				.flatMap(voiceChannelId -> discordClient.getChannelById(voiceChannelId)
+					.ofType(VoiceChannel.class)
+					.blockOptional()
+				)
 				.ifPresent(voiceChannel -> {
 					boolean wasPaused = guildBotGuildPlayer.isPaused();
 					guildBotGuildPlayer.pause();
@@ -196,30 +222,139 @@ public final class BotPlayerService {
 	 * Connect to the user's voice channel and add track to the queue
 	 */
 	public String connectAndAddToQueue(DeferrableInteractionEvent event, String trackIdOrUrl) {
+		Interaction interaction = event.getInteraction();
+		long guildId = interaction.getGuildId().map(Snowflake::asLong).orElse(BotGuildDispatcher.NO_GUILD_ID);
 		try {
-			Interaction interaction = event.getInteraction();
-			BotGuildPlayer botPlayer = interaction.getGuildId().map(guildId -> {
-				BotGuildPlayer botGuildPlayer = connect(guildId, interaction);
+			BotGuildPlayer botPlayer = interaction.getGuildId().map(guildSnowflake -> {
+				BotGuildPlayer botGuildPlayer = connect(guildSnowflake, interaction);
 				botGuildPlayer.addToQueue(trackIdOrUrl);
 				return botGuildPlayer;
 			}).orElseThrow(() -> new AddToQueueException(playerLocalization.getMessage("player_creation_error")));
 			boolean messageCreated = tryCreateMessage(event);
 			StringBuilder stringBuilder = new StringBuilder(playerLocalization.getMessage("track_added_message"));
-			if (messageCreated) {
-				stringBuilder.append("\n").append(playerLocalization.getMessage("player_created_message"));
+			appendPlayerState(stringBuilder, guildId, messageCreated, botPlayer);
+			return stringBuilder.toString();
+		} catch (AddToQueueException e) {
+			return getAddToQueueErrorMessage(guildId, e.getErrors(), e);
+		}
+	}
+
+	/**
+	 * Connect to the user's voice channel and add tracks or playlists to the queue without waiting for the load.
+	 * Links are resolved concurrently and added in the passed order, links over {@link #MAX_LINKS_PER_COMMAND} are
+	 * ignored and reported. Deferred reply is edited with the load progress and with the result (messages are taken
+	 * for the guild explicitly, the load completes out of the dispatcher).
+	 *
+	 * @throws PlayerAccessException if palyer was accesed outside the voiceCahnnel
+	 */
+	public void connectAndAddToQueueAsync(DeferrableInteractionEvent event, List<String> trackIdsOrUrls) {
+		Interaction interaction = event.getInteraction();
+		BotGuildPlayer botPlayer = interaction.getGuildId()
+			.map(guildId -> connect(guildId, interaction))
+			.orElseThrow(() -> new PlayerAccessException(playerLocalization.getMessage("player_creation_error")));
+		long guildId = Long.parseLong(botPlayer.getGuildId());
+		boolean messageCreated = tryCreateMessage(event);
+		BotReplyEditor replyEditor = new BotReplyEditor(event);
+		List<String> links = trackIdsOrUrls.subList(0, Math.min(trackIdsOrUrls.size(), MAX_LINKS_PER_COMMAND));
+		int ignoredLinksCount = trackIdsOrUrls.size() - links.size();
+		botPlayer.addToQueueAsync(links, progress -> {
+			if (!progress.isDone()) {
+				replyEditor.editProgress(playerLocalization.getGuildMessage(
+					guildId,
+					"track_loading_progress_message",
+					progress.getAddedCount(),
+					progress.getTotalCount()
+				));
+			}
+		}).handle((progress, throwable) -> {
+			if (throwable == null) {
+				return getQueueLoadMessage(progress, guildId, messageCreated, botPlayer);
 			}
-			if (botPlayer.getBotRepeatState() == BotRepeatState.REPEAT) {
-				stringBuilder.append("\n").append(playerLocalization.getMessage("repeat_enabled_warning"));
+			Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+			if (cause instanceof AddToQueueException) {
+				return getAddToQueueErrorMessage(guildId, ((AddToQueueException) cause).getErrors(), (Exception) cause);
 			}
+			return getAddToQueueErrorMessage(
+				guildId,
+				Collections.singletonList(String.valueOf(cause.getMessage())),
+				null
+			);
+		}).thenApply(message -> ignoredLinksCount == 0
+			? message
+			: message + "\n" + playerLocalization.getGuildMessage(
+				guildId,
+				"links_ignored_message",
+				MAX_LINKS_PER_COMMAND,
+				ignoredLinksCount
+			)
+		).thenAccept(replyEditor::edit);
+	}
 
-			return stringBuilder.toString();
-		} catch (AddToQueueException e) {
-			String errorMessage = playerLocalization.getMessage("track_add_error_message");
-			StringBuilder stringBuilder = new StringBuilder(errorMessage);
-			e.getErrors().forEach(messgae -> stringBuilder.append("\n").append(messgae));
-			log.error(errorMessage, e);
-			return stringBuilder.toString();
+	/**
+	 * Splits option value into links (by commas or new lines, identifiers like "ytsearch:artist song" contain spaces)
+	 */
+	public List<String> getLinksParamValue(ChatInputInteractionEvent event, String paramName) {
+		return Arrays.stream(getParamValue(event, paramName).split(LINKS_SEPARATOR_REGEX))
+			.map(String::trim)
+			.filter(link -> !link.isEmpty())
+			.collect(Collectors.toList());
+	}
+
+	private String getQueueLoadMessage(
+		BotQueueLoadProgress progress,
+		long guildId,
+		boolean messageCreated,
+		BotGuildPlayer botPlayer
+	) {
+		if (progress.getAddedCount() == 0) {
+			List<String> errors = new ArrayList<>();
+			if (progress.getDroppedCount() > 0) {
+				errors.add(getQueueFullMessage(progress, guildId));
+			}
+			errors.addAll(progress.getErrors());
+			return getAddToQueueErrorMessage(guildId, errors, null);
 		}
+		StringBuilder stringBuilder = new StringBuilder(progress.getAddedCount() == 1
+			? playerLocalization.getGuildMessage(guildId, "track_added_message")
+			: playerLocalization.getGuildMessage(guildId, "tracks_added_message", progress.getAddedCount())
+		);
+		if (progress.getDroppedCount() > 0) {
+			stringBuilder.append("\n").append(getQueueFullMessage(progress, guildId));
+		}
+		progress.getErrors().forEach(error -> stringBuilder.append("\n").append(error));
+		appendPlayerState(stringBuilder, guildId, messageCreated, botPlayer);
+		return stringBuilder.toString();
+	}
+
+	private String getQueueFullMessage(BotQueueLoadProgress progress, long guildId) {
+		return playerLocalization.getGuildMessage(
+			guildId,
+			"queue_full_dropped_message",
+			BotQueue.MAX_QUEUE_SIZE,
+			progress.getDroppedCount()
+		);
+	}
+
+	private void appendPlayerState(
+		StringBuilder stringBuilder,
+		long guildId,
+		boolean messageCreated,
+		BotGuildPlayer botPlayer
+	) {
+		if (messageCreated) {
+			stringBuilder.append("\n").append(playerLocalization.getGuildMessage(guildId, "player_created_message"));
+		}
+		if (botPlayer.getBotRepeatState() == BotRepeatState.REPEAT) {
+			stringBuilder.append("\n").append(playerLocalization.getGuildMessage(guildId, "repeat_enabled_warning"));
+		}
+	}
+
+	private String getAddToQueueErrorMessage(long guildId, List<String> errors, Exception exception) {
+		String errorMessage = playerLocalization.getGuildMessage(guildId, "track_add_error_message");
+		StringBuilder stringBuilder = new StringBuilder(errorMessage);
+		errors.forEach(messgae -> stringBuilder.append("\n").append(messgae));
+		log.error(errorMessage, exception);
+		return stringBuilder.toString();
 	}
 
 	/**
@@ -230,15 +365,11 @@ public final class BotPlayerService {
 	}
 
 	/**
-	 * Replies to message with exception text
+	 * Sends ephemeral followup with exception text (when interaction is acknowledged with deferred message update)
 	 */
-	public void replyToAccessError(DeferrableInteractionEvent event, PlayerAccessException playerAccessException) {
+	public void followupAccessError(DeferrableInteractionEvent event, PlayerAccessException playerAccessException) {
 		try {
-			event.reply(InteractionApplicationCommandCallbackSpec.builder()
-				.content(playerAccessException.getMessage())
-				.ephemeral(true)
-				.build()
-			).block();
+			event.createFollowup(playerAccessException.getMessage()).withEphemeral(true).block();
 		} catch (Exception e) {
 			log.error("access error reply error", e);
 		}
@@ -1,17 +1,34 @@
 package io.github.foloke.spring.services;
 
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import discord4j.common.util.Snowflake;
-import io.github.foloke.player.AddToQueueException;
 import io.github.foloke.player.BotGuildPlayer;
+import io.github.foloke.player.BotLoadResult;
+import io.github.foloke.player.BotPlayerStateStore;
+import io.github.foloke.player.BotTrackLoader;
+import io.github.foloke.spring.metrics.BotPlayerMetrics;
 import io.github.foloke.spring.services.localization.BotLocalization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Guild's players holder (basicly factory)
@@ -23,9 +40,19 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BotPlayersHolder {
 	private static final String TRACKS_REGEX = ",";
 	private static final String NEW_PLAYER_CREATED_LOG_MESSAGE = "new player created";
+	private static final String PLAYER_RESTORED_LOG_MESSAGE = "player restored from journal";
 	private final Logger log = LoggerFactory.getLogger(BotPlayersHolder.class);
-	private final Map<String, BotGuildPlayer> guildIdToBotPlayers = new ConcurrentHashMap<>();
+	/**
+	 * Players partitioned by the shard owning the guild
+	 */
+	private final Map<Integer, Map<Long, CompletableFuture<BotGuildPlayer>>> shardIndexToBotPlayers =
+		new ConcurrentHashMap<>();
 	private final BotLocalization playerLocalization;
+	private final BotTrackLoader trackLoader;
+	private final BotTitleIndex titleIndex;
+	private final BotShards shards;
+	private final BotPlayerStateStore playerStateStore;
+	private final BotPlayerMetrics playerMetrics;
 	/**
 	 * Default track for new queue (for debugging)
 	 */
@@ -33,31 +60,148 @@ public class BotPlayersHolder {
 	private String defaultTrackList;
 	@Value("${motd}")
 	private String motd;
+	private volatile CompletableFuture<List<BotLoadResult>> defaultTracks =
+		CompletableFuture.completedFuture(Collections.emptyList());
 
-	public BotPlayersHolder(BotLocalization playerLocalization) {
+	public BotPlayersHolder(
+		BotLocalization playerLocalization,
+		BotTrackLoader trackLoader,
+		BotTitleIndex titleIndex,
+		BotShards shards,
+		BotPlayerStateStore playerStateStore,
+		BotPlayerMetrics playerMetrics
+	) {
 		this.playerLocalization = playerLocalization;
+		this.trackLoader = trackLoader;
+		this.titleIndex = titleIndex;
+		this.shards = shards;
+		this.playerStateStore = playerStateStore;
+		this.playerMetrics = playerMetrics;
+	}
+
+	/**
+	 * Resolves default track list once, new players get copies of the resolved tracks
+	 */
+	@PostConstruct
+	public void resolveDefaultTrackList() {
+		List<CompletableFuture<BotLoadResult>> loads = Arrays.stream(defaultTrackList.split(TRACKS_REGEX))
+			.map(String::trim)
+			.filter(trackLink -> !trackLink.isEmpty())
+			.map(trackLink -> trackLoader.loadItem(trackLink).exceptionally(throwable -> {
+				log.error("Initial track load error", throwable);
+				return null;
+			}))
+			.collect(Collectors.toList());
+		defaultTracks = CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+			.thenApply(ignored -> loads.stream()
+				.map(CompletableFuture::join)
+				.filter(Objects::nonNull)
+				.filter(BotLoadResult::isCacheable)
+				.collect(Collectors.toList())
+			);
 	}
 
 	/**
-	 * Get player by Guild id
+	 * Get player by Guild id. Only requests for the same guild wait while its player is created.
+	 *
+	 * @throws IllegalStateException if guild is owned by another cluster node
 	 */
-	public synchronized BotGuildPlayer getBotPlayer(Snowflake guildId) {
-		return guildIdToBotPlayers.computeIfAbsent(
-			guildId.asString(),
-			this::getNewBotPlayer
+	public BotGuildPlayer getBotPlayer(Snowflake guildId) {
+		long id = guildId.asLong();
+		if (!shards.isOwnedGuild(id)) {
+			throw new IllegalStateException(String.format("Guild %d is owned by another node", id));
+		}
+		Map<Long, CompletableFuture<BotGuildPlayer>> guildIdToBotPlayers = shardIndexToBotPlayers.computeIfAbsent(
+			shards.getShardIndex(id),
+			shardIndex -> new ConcurrentHashMap<>()
 		);
+		CompletableFuture<BotGuildPlayer> botPlayer = guildIdToBotPlayers.get(id);
+		if (botPlayer == null) {
+			CompletableFuture<BotGuildPlayer> newBotPlayer = new CompletableFuture<>();
+			botPlayer = guildIdToBotPlayers.putIfAbsent(id, newBotPlayer);
+			if (botPlayer == null) {
+				botPlayer = newBotPlayer;
+				try {
+					BotGuildPlayer createdBotPlayer = getNewBotPlayer(guildId.asString());
+					createdBotPlayer.addAudioEventListener(new AudioEventAdapter() {
+						@Override
+						public void onTrackStart(AudioPlayer player, AudioTrack track) {
+							titleIndex.addPlayed(id, track.getInfo().title, track.getInfo().uri);
+						}
+					});
+					newBotPlayer.complete(createdBotPlayer);
+				} catch (RuntimeException e) {
+					guildIdToBotPlayers.remove(id, newBotPlayer);
+					newBotPlayer.completeExceptionally(e);
+					throw e;
+				}
+			}
+		}
+		return botPlayer.join();
 	}
 
 	private BotGuildPlayer getNewBotPlayer(String guildId) {
-		BotGuildPlayer botGuildPlayer = new BotGuildPlayer(guildId, motd, playerLocalization);
-		Arrays.stream(defaultTrackList.split(TRACKS_REGEX)).forEach(trackLink -> {
-			try {
-				botGuildPlayer.addToQueue(trackLink);
-			} catch (AddToQueueException e) {
-				log.error("Initial track add error");
-			}
-		});
+		Optional<Path> guildJournalPath = playerStateStore.acquire(guildId);
+		boolean journalExists = guildJournalPath.map(Files::exists).orElse(false);
+		BotGuildPlayer botGuildPlayer;
+		try {
+			botGuildPlayer = new BotGuildPlayer(
+				guildId,
+				motd,
+				playerLocalization,
+				trackLoader,
+				playerMetrics,
+				guildJournalPath
+			);
+		} catch (RuntimeException e) {
+			playerStateStore.release(guildId);
+			throw e;
+		}
+		if (journalExists) {
+			log.info(PLAYER_RESTORED_LOG_MESSAGE);
+			return botGuildPlayer;
+		}
+		defaultTracks.thenAccept(botGuildPlayer::addLoadedTracks);
 		log.info(NEW_PLAYER_CREATED_LOG_MESSAGE);
 		return botGuildPlayer;
 	}
+
+	/**
+	 * Players count of every shard
+	 */
+	public Map<Integer, Integer> getShardPlayersCount() {
+		Map<Integer, Integer> shardPlayersCount = new TreeMap<>();
+		shardIndexToBotPlayers.forEach((shardIndex, botPlayers) -> shardPlayersCount.put(shardIndex, botPlayers.size()));
+		return shardPlayersCount;
+	}
+
+	/**
+	 * Created players of every shard, players being created are skipped
+	 */
+	public Map<Integer, List<BotGuildPlayer>> getShardPlayers() {
+		Map<Integer, List<BotGuildPlayer>> shardPlayers = new TreeMap<>();
+		shardIndexToBotPlayers.forEach((shardIndex, botPlayers) -> shardPlayers.put(
+			shardIndex,
+			botPlayers.values().stream()
+				.filter(botPlayer -> botPlayer.isDone() && !botPlayer.isCompletedExceptionally())
+				.map(CompletableFuture::join)
+				.collect(Collectors.toList())
+		));
+		return shardPlayers;
+	}
+
+	/**
+	 * Compacts and closes all the journals, so the next start (or the next guild owner) replays only the snapshots
+	 */
+	@PreDestroy
+	public void closePlayers() {
+		shardIndexToBotPlayers.values().stream()
+			.flatMap(botPlayers -> botPlayers.values().stream())
+			.filter(botPlayer -> botPlayer.isDone() && !botPlayer.isCompletedExceptionally())
+			.map(CompletableFuture::join)
+			.forEach(botPlayer -> {
+				botPlayer.close();
+				playerStateStore.release(botPlayer.getGuildId());
+			});
+	}
 }
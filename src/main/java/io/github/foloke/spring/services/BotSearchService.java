@@ -0,0 +1,201 @@
+package io.github.foloke.spring.services;
+
+import com.google.common.collect.Lists;
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.event.domain.interaction.DeferrableInteractionEvent;
+import discord4j.core.object.component.ActionRow;
+import discord4j.core.object.component.Button;
+import discord4j.core.object.component.LayoutComponent;
+import discord4j.core.object.reaction.ReactionEmoji;
+import discord4j.core.spec.EmbedCreateFields.Field;
+import discord4j.core.spec.EmbedCreateFields.Footer;
+import discord4j.core.spec.EmbedCreateSpec;
+import discord4j.core.spec.InteractionReplyEditSpec;
+import io.github.foloke.spring.commands.player.BotChooseTrackSearchResultButtonCommand;
+import io.github.foloke.spring.commands.player.BotSearchPageButtonCommand;
+import io.github.foloke.spring.services.localization.BotLocalization;
+import io.github.foloke.spring.youtube.NoApiKeyException;
+import io.github.foloke.spring.youtube.YouTubeSearchPage;
+import io.github.foloke.spring.youtube.YouTubeService;
+import io.github.foloke.spring.youtube.YouTubeVideo;
+import io.github.foloke.utils.BotLoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.github.foloke.utils.commands.BotButtonCommand.ID_PARAMS_SEPARATOR;
+
+/**
+ * Paginated search messages. Search query is kept per interaction while its ephemeral message lives, pages are
+ * loaded (and the next page prefetched) by {@link YouTubeService}.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class BotSearchService {
+	private static final String BASE_YT_VIDEO_URL = "https://www.youtube.com/watch?v=";
+	private static final String LINK_FORMAT = "%d - [%s](%s%s)";
+	private static final int SEARCH_SESSIONS_COUNT = 10000;
+	private static final long SEARCH_SESSION_TTL_MINUTES = 15;
+	private static final int BUTTONS_PER_ROW = 5;
+	private final Logger log = LoggerFactory.getLogger(BotSearchService.class);
+	private final BotLocalization playerLocalization;
+	private final YouTubeService youTubeService;
+	private final BotTrackPrefetcher trackPrefetcher;
+	private final BotLoadingCache<String, String> sessionIdToQuery = new BotLoadingCache<>(
+		SEARCH_SESSIONS_COUNT,
+		SEARCH_SESSION_TTL_MINUTES,
+		TimeUnit.MINUTES,
+		Objects::nonNull
+	);
+
+	@Autowired
+	public BotSearchService(
+		BotLocalization playerLocalization,
+		YouTubeService youTubeService,
+		BotTrackPrefetcher trackPrefetcher
+	) {
+		this.playerLocalization = playerLocalization;
+		this.youTubeService = youTubeService;
+		this.trackPrefetcher = trackPrefetcher;
+	}
+
+	/**
+	 * Searches by query and edits deferred reply with the first page (page is loaded out of the guild dispatcher, so
+	 * messages are taken for the guild explicitly)
+	 */
+	public void search(ChatInputInteractionEvent event, String query) {
+		String sessionId = event.getInteraction().getId().asString();
+		long guildId = getGuildId(event);
+		sessionIdToQuery.put(sessionId, query);
+		try {
+			youTubeService.searchPage(query, 0).whenComplete((page, throwable) -> {
+				if (throwable != null) {
+					log.error("error on track search", throwable);
+					event.editReply(playerLocalization.getGuildMessage(guildId, "search_error")).subscribe();
+				} else if (page.getVideos().isEmpty()) {
+					event.editReply(playerLocalization.getGuildMessage(guildId, "no_search_result")).subscribe();
+				} else {
+					event.editReply(createReplyEdit(guildId, sessionId, page, 0)).subscribe();
+				}
+			});
+		} catch (NoApiKeyException e) {
+			log.warn("No API in .env file", e);
+			event.editReply(e.getMessage()).block();
+		}
+	}
+
+	/**
+	 * Replaces search message content with another page (message update is already deferred). Cached page is shown
+	 * right away, otherwise message is edited when the page is loaded.
+	 */
+	public void showPage(ButtonInteractionEvent event, String sessionId, int pageIndex) {
+		Optional<String> query = sessionIdToQuery.getIfPresent(sessionId);
+		if (!query.isPresent()) {
+			event.createFollowup(playerLocalization.getMessage("search_expired")).withEphemeral(true).block();
+			return;
+		}
+		long guildId = getGuildId(event);
+		youTubeService.searchPage(query.get(), pageIndex).whenComplete((loadedPage, throwable) -> {
+			if (throwable != null) {
+				log.error("error on search page load", throwable);
+				event.editReply(playerLocalization.getGuildMessage(guildId, "search_error")).subscribe();
+			} else {
+				event.editReply(createReplyEdit(guildId, sessionId, loadedPage, pageIndex)).subscribe();
+			}
+		});
+	}
+
+	private static long getGuildId(DeferrableInteractionEvent event) {
+		return event.getInteraction().getGuildId().map(Snowflake::asLong).orElse(BotGuildDispatcher.NO_GUILD_ID);
+	}
+
+	private InteractionReplyEditSpec createReplyEdit(
+		long guildId,
+		String sessionId,
+		YouTubeSearchPage page,
+		int pageIndex
+	) {
+		prefetch(page);
+		return InteractionReplyEditSpec.builder()
+			.addEmbed(createEmbed(guildId, page, pageIndex))
+			.components(createComponents(sessionId, page, pageIndex))
+			.build();
+	}
+
+	private void prefetch(YouTubeSearchPage page) {
+		trackPrefetcher.prefetch(page.getVideos().stream().map(YouTubeVideo::getVideoId).collect(Collectors.toList()));
+	}
+
+	private EmbedCreateSpec createEmbed(long guildId, YouTubeSearchPage page, int pageIndex) {
+		List<YouTubeVideo> videos = page.getVideos();
+		int firstNumber = (int) (pageIndex * YouTubeService.PAGE_RESULTS) + 1;
+		return EmbedCreateSpec.create()
+			.withFields(IntStream.range(0, videos.size())
+				.mapToObj(index -> Field.of(
+					"",
+					String.format(
+						LINK_FORMAT,
+						firstNumber + index,
+						videos.get(index).getTitle(),
+						BASE_YT_VIDEO_URL,
+						videos.get(index).getVideoId()
+					),
+					false
+				))
+				.collect(Collectors.toList())
+			)
+			.withTitle(playerLocalization.getGuildMessage(guildId, "tracks_found_caption"))
+			.withFooter(Footer.of(
+				playerLocalization.getGuildMessage(guildId, "search_page_footer", pageIndex + 1),
+				null
+			));
+	}
+
+	private List<LayoutComponent> createComponents(String sessionId, YouTubeSearchPage page, int pageIndex) {
+		List<YouTubeVideo> videos = page.getVideos();
+		int firstNumber = (int) (pageIndex * YouTubeService.PAGE_RESULTS) + 1;
+		List<Button> chooseButtons = IntStream.range(0, videos.size())
+			.mapToObj(index -> Button.success(
+				BotChooseTrackSearchResultButtonCommand.COMMNAD_NAME
+					+ ID_PARAMS_SEPARATOR
+					+ videos.get(index).getVideoId()
+					+ ID_PARAMS_SEPARATOR
+					+ index,
+				Integer.toString(firstNumber + index)
+			))
+			.collect(Collectors.toList());
+		List<LayoutComponent> layoutComponentList = new ArrayList<>();
+		Lists.partition(chooseButtons, BUTTONS_PER_ROW).stream()
+			.map(ActionRow::of)
+			.forEach(layoutComponentList::add);
+		layoutComponentList.add(ActionRow.of(
+			createPageButton(sessionId, pageIndex - 1, "◀").disabled(pageIndex == 0),
+			createPageButton(sessionId, pageIndex + 1, "▶").disabled(!page.getNextPageToken().isPresent())
+		));
+		return layoutComponentList;
+	}
+
+	private static Button createPageButton(String sessionId, int pageIndex, String emoji) {
+		return Button.secondary(
+			BotSearchPageButtonCommand.COMMAND_NAME
+				+ ID_PARAMS_SEPARATOR
+				+ sessionId
+				+ ID_PARAMS_SEPARATOR
+				+ pageIndex,
+			ReactionEmoji.unicode(emoji)
+		);
+	}
+}
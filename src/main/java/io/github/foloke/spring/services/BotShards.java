@@ -0,0 +1,126 @@
+package io.github.foloke.spring.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Shards of the bot process. Guild belongs to the shard {@code (guildId >> 22) % shardCount}, players and event
+ * queues are partitioned the same way. In cluster mode the process starts only shards owned by its node.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotShards {
+	private static final String INDICES_SEPARATOR = ",";
+	private static final String RANGE_SEPARATOR = "-";
+	private static final int GUILD_ID_TIMESTAMP_SHIFT = 22;
+	/**
+	 * Shards count of the whole bot, 0 to use count recommended by Discord
+	 */
+	@Value("${shardCount}")
+	private int configuredShardCount;
+	/**
+	 * Shards started by this process, like "0-3" or "0,2", empty for all
+	 */
+	@Value("${shardIndices}")
+	private String shardIndices;
+	private final BotClusterRing clusterRing;
+	private volatile int shardCount = 1;
+
+	@Autowired
+	public BotShards(BotClusterRing clusterRing) {
+		this.clusterRing = clusterRing;
+	}
+
+	/**
+	 * Cluster nodes can't agree on shards owners without fixed shards count
+	 */
+	@PostConstruct
+	public void init() {
+		if (clusterRing.isEnabled() && !isConfigured()) {
+			throw new IllegalStateException("shardCount must be set in cluster mode");
+		}
+		if (isConfigured()) {
+			shardCount = configuredShardCount;
+		}
+	}
+
+	/**
+	 * Is shard count set by configuration (or left to Discord recommendation)
+	 */
+	public boolean isConfigured() {
+		return configuredShardCount > 0;
+	}
+
+	public int getConfiguredShardCount() {
+		return configuredShardCount;
+	}
+
+	public int getShardCount() {
+		return shardCount;
+	}
+
+	/**
+	 * Updates shard count after login (recommended count is known only from the gateway)
+	 */
+	public void setShardCount(int shardCount) {
+		this.shardCount = Math.max(1, shardCount);
+	}
+
+	/**
+	 * Shard indices started by this process (configured ones owned by this node), empty list for all
+	 */
+	public List<Integer> getShardIndices() {
+		List<Integer> configuredIndices = getConfiguredShardIndices();
+		if (!clusterRing.isEnabled()) {
+			return configuredIndices;
+		}
+		List<Integer> indices = configuredIndices.isEmpty()
+			? IntStream.range(0, configuredShardCount).boxed().collect(Collectors.toList())
+			: configuredIndices;
+		return indices.stream().filter(clusterRing::isOwned).collect(Collectors.toList());
+	}
+
+	/**
+	 * Is guild served by this node (always true without cluster)
+	 */
+	public boolean isOwnedGuild(long guildId) {
+		return clusterRing.isOwned(getShardIndex(guildId));
+	}
+
+	private List<Integer> getConfiguredShardIndices() {
+		return Arrays.stream(shardIndices.split(INDICES_SEPARATOR))
+			.map(String::trim)
+			.filter(indices -> !indices.isEmpty())
+			.flatMap(indices -> {
+				String[] range = indices.split(RANGE_SEPARATOR);
+				int first = Integer.parseInt(range[0].trim());
+				int last = Integer.parseInt(range[range.length - 1].trim());
+				return IntStream.rangeClosed(first, last).boxed();
+			})
+			.distinct()
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Shard owning the guild
+	 */
+	public int getShardIndex(long guildId) {
+		return getShardIndex(guildId, shardCount);
+	}
+
+	/**
+	 * Shard owning the guild for the passed shards count (the Discord formula)
+	 */
+	public static int getShardIndex(long guildId, int shardCount) {
+		return (int) ((guildId >>> GUILD_ID_TIMESTAMP_SHIFT) % shardCount);
+	}
+}
@@ -0,0 +1,196 @@
+package io.github.foloke.spring.services;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
+import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * In-memory prefix index of known track titles (played tracks and search results) for commands autocomplete. Every
+ * title is indexed from each of its words, so "queen" finds "Bohemian Rhapsody - Queen". Oldest titles are evicted
+ * when the index is full. Guild history of played tracks is suggested first.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotTitleIndex {
+	private static final String KEY_SEPARATOR = "\u0000";
+	private static final String SPACES_REGEX = "\\s+";
+	private static final int MAX_INDEXED_WORDS = 8;
+	private static final int MAX_GUILD_HISTORY = 50;
+	private static final int MAX_SUGGESTIONS = 25;
+	private static final int MAX_CHOICE_LENGTH = 100;
+	private final ConcurrentSkipListMap<String, Title> index = new ConcurrentSkipListMap<>();
+	private final Queue<String> indexKeysOrder = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger indexSize = new AtomicInteger();
+	private final Map<Long, Deque<Title>> guildIdToHistory = new ConcurrentHashMap<>();
+	/**
+	 * Max index keys count (every title has a key per word)
+	 */
+	@Value("${titleIndexSize}")
+	private int maxIndexSize;
+
+	/**
+	 * Adds title of the track played in the guild to guild history and to the index
+	 */
+	public void addPlayed(long guildId, String title, String link) {
+		if (title == null || link == null || title.trim().isEmpty()) {
+			return;
+		}
+		Title playedTitle = new Title(title, link);
+		Deque<Title> history = guildIdToHistory.computeIfAbsent(guildId, id -> new ArrayDeque<>());
+		synchronized (history) {
+			history.removeIf(historyTitle -> historyTitle.link.equals(link));
+			history.addFirst(playedTitle);
+			if (history.size() > MAX_GUILD_HISTORY) {
+				history.removeLast();
+			}
+		}
+		add(title, link);
+	}
+
+	/**
+	 * Adds title to the index
+	 */
+	public void add(String title, String link) {
+		if (title == null || link == null || title.trim().isEmpty()) {
+			return;
+		}
+		Title indexedTitle = new Title(title, link);
+		String[] words = normalize(title).split(" ");
+		StringBuilder suffix = new StringBuilder();
+		for (int i = Math.max(0, words.length - 1); i >= 0; i--) {
+			suffix.insert(0, words[i] + (suffix.length() > 0 ? " " : ""));
+			if (i < MAX_INDEXED_WORDS && !words[i].isEmpty()) {
+				String key = suffix + KEY_SEPARATOR + link;
+				if (index.putIfAbsent(key, indexedTitle) == null) {
+					indexKeysOrder.add(key);
+					indexSize.incrementAndGet();
+				}
+			}
+		}
+		while (indexSize.get() > maxIndexSize) {
+			String oldestKey = indexKeysOrder.poll();
+			if (oldestKey == null) {
+				break;
+			}
+			index.remove(oldestKey);
+			indexSize.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Titles with a word starting with the input, guild history goes first. Empty input gives guild history.
+	 */
+	public List<Title> suggest(Long guildId, String input, int limit) {
+		String prefix = normalize(input);
+		Map<String, Title> linkToTitle = new LinkedHashMap<>();
+		Deque<Title> history = guildId == null ? null : guildIdToHistory.get(guildId);
+		if (history != null) {
+			synchronized (history) {
+				for (Title title : history) {
+					if (linkToTitle.size() >= limit) {
+						break;
+					}
+					if (prefix.isEmpty() || title.matches(prefix)) {
+						linkToTitle.putIfAbsent(title.link, title);
+					}
+				}
+			}
+		}
+		if (!prefix.isEmpty()) {
+			for (Title title : index.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+				if (linkToTitle.size() >= limit) {
+					break;
+				}
+				linkToTitle.putIfAbsent(title.link, title);
+			}
+		}
+		if (linkToTitle.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(linkToTitle.values());
+	}
+
+	/**
+	 * Autocomplete choices for the focused option value. Titles whose value is longer than a choice value can be are
+	 * not suggested (cut link would not load), long names are cut.
+	 *
+	 * @param valueMapper choice value of the title (link or title itself)
+	 */
+	public List<ApplicationCommandOptionChoiceData> suggestChoices(
+		ChatInputAutoCompleteEvent event,
+		Function<Title, String> valueMapper
+	) {
+		String input = event.getFocusedOption()
+			.getValue()
+			.map(ApplicationCommandInteractionOptionValue::asString)
+			.orElse("");
+		Long guildId = event.getInteraction().getGuildId().map(Snowflake::asLong).orElse(null);
+		List<ApplicationCommandOptionChoiceData> choices = new ArrayList<>();
+		for (Title title : suggest(guildId, input, MAX_SUGGESTIONS)) {
+			String value = valueMapper.apply(title);
+			if (value.length() <= MAX_CHOICE_LENGTH) {
+				choices.add(ApplicationCommandOptionChoiceData.builder()
+					.name(truncate(title.title))
+					.value(value)
+					.build()
+				);
+			}
+		}
+		return choices;
+	}
+
+	private static String truncate(String text) {
+		return text.length() > MAX_CHOICE_LENGTH ? text.substring(0, MAX_CHOICE_LENGTH) : text;
+	}
+
+	private static String normalize(String text) {
+		return text.trim().replaceAll(SPACES_REGEX, " ").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Indexed track title with its link
+	 */
+	public static final class Title {
+		private final String title;
+		private final String link;
+		private final String normalizedTitle;
+
+		private Title(String title, String link) {
+			this.title = title;
+			this.link = link;
+			normalizedTitle = normalize(title);
+		}
+
+		private boolean matches(String prefix) {
+			return normalizedTitle.startsWith(prefix) || normalizedTitle.contains(" " + prefix);
+		}
+
+		public String getTitle() {
+			return title;
+		}
+
+		public String getLink() {
+			return link;
+		}
+	}
+}
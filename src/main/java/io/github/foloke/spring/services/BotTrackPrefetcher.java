@@ -0,0 +1,82 @@
+package io.github.foloke.spring.services;
+
+import io.github.foloke.player.BotTrackLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Resolves top search results in background into the short-lived prefetch cache of the track loader, so chosen track
+ * is loaded right away. Prefetch never waits: at most prefetchConcurrency tracks are resolved at once, and results
+ * are skipped while the loader threads are busy with real loads.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotTrackPrefetcher {
+	private final Logger log = LoggerFactory.getLogger(BotTrackPrefetcher.class);
+	private final BotTrackLoader trackLoader;
+	/**
+	 * Max concurrently prefetched tracks, less than loader threads so real loads always have a free thread
+	 */
+	@Value("${prefetchConcurrency}")
+	private int prefetchConcurrency;
+	/**
+	 * How many top search results are prefetched
+	 */
+	@Value("${prefetchCount}")
+	private int prefetchCount;
+	@Value("${trackLoaderThreads}")
+	private int trackLoaderThreads;
+	private Semaphore prefetchPermits;
+
+	public BotTrackPrefetcher(BotTrackLoader trackLoader) {
+		this.trackLoader = trackLoader;
+	}
+
+	/**
+	 * Creates prefetch permits
+	 */
+	@PostConstruct
+	public void init() {
+		prefetchPermits = new Semaphore(prefetchConcurrency);
+	}
+
+	/**
+	 * Starts resolving top tracks in background, tracks without a free permit or loader thread are skipped
+	 *
+	 * @param trackIds search results in display order
+	 */
+	public void prefetch(List<String> trackIds) {
+		int skippedCount = 0;
+		for (String trackId : trackIds.subList(0, Math.min(prefetchCount, trackIds.size()))) {
+			if (!isLoaderFree() || !prefetchPermits.tryAcquire()) {
+				skippedCount++;
+				continue;
+			}
+			try {
+				trackLoader.prefetch(trackId).whenComplete((result, throwable) -> prefetchPermits.release());
+			} catch (RuntimeException e) {
+				prefetchPermits.release();
+				throw e;
+			}
+		}
+		if (skippedCount > 0) {
+			log.info(String.format("Prefetch skipped, loaders are busy: %d tracks", skippedCount));
+		}
+	}
+
+	/**
+	 * Real loads in flight leave a loader thread for prefetch
+	 */
+	private boolean isLoaderFree() {
+		int prefetchesInFlight = prefetchConcurrency - prefetchPermits.availablePermits();
+		return trackLoader.getCache().getInFlightCount() + prefetchesInFlight < trackLoaderThreads;
+	}
+}
@@ -0,0 +1,223 @@
+package io.github.foloke.spring.services;
+
+import discord4j.common.store.Store;
+import discord4j.common.store.action.read.ReadActions;
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.VoiceStateUpdateEvent;
+import discord4j.core.event.domain.guild.GuildCreateEvent;
+import discord4j.core.object.VoiceState;
+import discord4j.discordjson.json.MemberData;
+import discord4j.discordjson.possible.Possible;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Voice channels of guild members (and of the bot itself) with their names, kept current by gateway events.
+ * Answers without REST calls once the guild was received from gateway. Guild voice states are published only when
+ * they are complete: updates received while the guild snapshot is read are applied over the snapshot.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Component
+public class BotVoiceStateCache {
+	private final Logger log = LoggerFactory.getLogger(BotVoiceStateCache.class);
+	private final Map<Long, Map<Long, VoiceMember>> guildIdToVoiceMembers = new ConcurrentHashMap<>();
+	/**
+	 * Updates of the guilds being loaded, user id to the new state (empty if user left), guarded by this
+	 */
+	private final Map<Long, Map<Long, Optional<VoiceMember>>> guildIdToPendingUpdates = new HashMap<>();
+	private volatile long selfId;
+
+	/**
+	 * Fills guild voice states from guild snapshot
+	 */
+	public void onGuildCreate(GuildCreateEvent event) {
+		selfId = event.getClient().getSelfId().asLong();
+		long guildId = event.getGuild().getId().asLong();
+		Store store = event.getClient().getGatewayResources().getStore();
+		Map<Long, Optional<VoiceMember>> pendingUpdates = startLoading(guildId);
+		// guild voice states and members are already saved to the store, reads don't leave memory
+		event.getGuild().getVoiceStates()
+			.flatMap(voiceState -> Mono.justOrEmpty(voiceState.getChannelId()).flatMap(channelId -> {
+				long userId = voiceState.getUserId().asLong();
+				return Mono.from(store.execute(ReadActions.getMemberById(guildId, userId)))
+					.map(Optional::of)
+					.defaultIfEmpty(Optional.empty())
+					.map(memberData -> Map.entry(userId, new VoiceMember(channelId.asLong(), memberData.orElse(null))));
+			}))
+			.collectMap(Map.Entry::getKey, Map.Entry::getValue)
+			.subscribe(
+				voiceMembers -> publish(guildId, pendingUpdates, voiceMembers),
+				throwable -> {
+					log.error(String.format("Guild %d voice states are not loaded", guildId), throwable);
+					cancelLoading(guildId, pendingUpdates);
+				}
+			);
+	}
+
+	private synchronized Map<Long, Optional<VoiceMember>> startLoading(long guildId) {
+		Map<Long, Optional<VoiceMember>> pendingUpdates = new HashMap<>();
+		guildIdToPendingUpdates.put(guildId, pendingUpdates);
+		return pendingUpdates;
+	}
+
+	/**
+	 * Publishes loaded voice states with updates received during the load, unless a newer load has started
+	 */
+	private synchronized void publish(
+		long guildId,
+		Map<Long, Optional<VoiceMember>> pendingUpdates,
+		Map<Long, VoiceMember> loadedVoiceMembers
+	) {
+		if (guildIdToPendingUpdates.get(guildId) != pendingUpdates) {
+			return;
+		}
+		Map<Long, VoiceMember> voiceMembers = new ConcurrentHashMap<>(loadedVoiceMembers);
+		pendingUpdates.forEach((userId, voiceMember) -> {
+			if (voiceMember.isPresent()) {
+				voiceMembers.put(userId, voiceMember.get());
+			} else {
+				voiceMembers.remove(userId);
+			}
+		});
+		guildIdToVoiceMembers.put(guildId, voiceMembers);
+		guildIdToPendingUpdates.remove(guildId);
+	}
+
+	private synchronized void cancelLoading(long guildId, Map<Long, Optional<VoiceMember>> pendingUpdates) {
+		guildIdToPendingUpdates.remove(guildId, pendingUpdates);
+	}
+
+	/**
+	 * Updates member voice channel (joined, moved or left)
+	 */
+	public synchronized void onVoiceStateUpdate(VoiceStateUpdateEvent event) {
+		selfId = event.getClient().getSelfId().asLong();
+		VoiceState voiceState = event.getCurrent();
+		long guildId = voiceState.getGuildId().asLong();
+		long userId = voiceState.getUserId().asLong();
+		Optional<VoiceMember> voiceMember = voiceState.getChannelId().map(channelId -> new VoiceMember(
+			channelId.asLong(),
+			voiceState.getData().member().toOptional().orElse(null)
+		));
+		Map<Long, Optional<VoiceMember>> pendingUpdates = guildIdToPendingUpdates.get(guildId);
+		if (pendingUpdates != null) {
+			pendingUpdates.put(userId, voiceMember);
+		}
+		Map<Long, VoiceMember> voiceMembers = guildIdToVoiceMembers.get(guildId);
+		if (voiceMembers == null) {
+			// guild snapshot is not received (resumed session without saved states), partial states would look complete
+			return;
+		}
+		if (voiceMember.isPresent()) {
+			voiceMembers.put(userId, voiceMember.get());
+		} else {
+			voiceMembers.remove(userId);
+		}
+	}
+
+	/**
+	 * Voice states of the loaded guilds, guild id to user id to member
+	 */
+	public Map<Long, Map<Long, VoiceMember>> getSnapshot() {
+		Map<Long, Map<Long, VoiceMember>> snapshot = new HashMap<>();
+		guildIdToVoiceMembers.forEach((guildId, voiceMembers) -> snapshot.put(guildId, new HashMap<>(voiceMembers)));
+		return snapshot;
+	}
+
+	/**
+	 * Restores guild voice states saved by the previous run, for the resumed session that gets no guild snapshot
+	 * (events missed since the save are replayed by the gateway). Guild received from the gateway is not replaced.
+	 */
+	public synchronized void restore(long guildId, Map<Long, VoiceMember> voiceMembers) {
+		if (!guildIdToVoiceMembers.containsKey(guildId) && !guildIdToPendingUpdates.containsKey(guildId)) {
+			guildIdToVoiceMembers.put(guildId, new ConcurrentHashMap<>(voiceMembers));
+		}
+	}
+
+	/**
+	 * Is guild snapshot received, if not, voice state is unknown rather than absent
+	 */
+	public boolean isGuildLoaded(Snowflake guildId) {
+		return guildIdToVoiceMembers.containsKey(guildId.asLong());
+	}
+
+	/**
+	 * Voice channel of the member
+	 */
+	public Optional<Snowflake> getChannelId(Snowflake guildId, Snowflake userId) {
+		return Optional.ofNullable(guildIdToVoiceMembers.getOrDefault(guildId.asLong(), Collections.emptyMap())
+			.get(userId.asLong())
+		).map(voiceMember -> Snowflake.of(voiceMember.channelId));
+	}
+
+	/**
+	 * Voice channel the bot is connected to
+	 */
+	public Optional<Snowflake> getBotChannelId(Snowflake guildId) {
+		return getChannelId(guildId, Snowflake.of(selfId));
+	}
+
+	/**
+	 * Members in the voice channel (including bots), user id to member
+	 */
+	public Map<Snowflake, VoiceMember> getChannelMembers(Snowflake guildId, Snowflake channelId) {
+		Map<Snowflake, VoiceMember> channelMembers = new HashMap<>();
+		guildIdToVoiceMembers.getOrDefault(guildId.asLong(), Collections.emptyMap()).forEach((userId, voiceMember) -> {
+			if (voiceMember.channelId == channelId.asLong()) {
+				channelMembers.put(Snowflake.of(userId), voiceMember);
+			}
+		});
+		return channelMembers;
+	}
+
+	/**
+	 * Voice channel of the member with its name (as it was when the member joined)
+	 */
+	public static final class VoiceMember {
+		private final long channelId;
+		private final String displayName;
+		private final boolean bot;
+
+		private VoiceMember(long channelId, MemberData memberData) {
+			this(
+				channelId,
+				memberData == null ? null : Possible.flatOpt(memberData.nick()).orElse(memberData.user().username()),
+				memberData != null && memberData.user().bot().toOptional().orElse(false)
+			);
+		}
+
+		/**
+		 * @param displayName null if member data was not received
+		 */
+		public VoiceMember(long channelId, String displayName, boolean bot) {
+			this.channelId = channelId;
+			this.displayName = displayName;
+			this.bot = bot;
+		}
+
+		public long getChannelId() {
+			return channelId;
+		}
+
+		/**
+		 * Guild nickname or user name, empty if member data was not received
+		 */
+		public Optional<String> getDisplayName() {
+			return Optional.ofNullable(displayName);
+		}
+
+		public boolean isBot() {
+			return bot;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package io.github.foloke.spring.services.localization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locales chosen by guilds, guilds without one use the configured locale. Kept in memory and saved to a local file on
+ * change.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@Service
+public class BotGuildLocales {
+	private final Logger log = LoggerFactory.getLogger(BotGuildLocales.class);
+	private final Map<Long, String> guildIdToLocale = new ConcurrentHashMap<>();
+	/**
+	 * Guild locales file, empty to keep locales only in memory
+	 */
+	@Value("${guildLocalesPath}")
+	private String guildLocalesPath;
+
+	/**
+	 * Loads saved locales
+	 */
+	@PostConstruct
+	public void loadLocales() {
+		if (guildLocalesPath.isEmpty() || !Files.exists(Paths.get(guildLocalesPath))) {
+			return;
+		}
+		Properties locales = new Properties();
+		try (Reader reader = Files.newBufferedReader(Paths.get(guildLocalesPath), StandardCharsets.UTF_8)) {
+			locales.load(reader);
+			for (String guildId : locales.stringPropertyNames()) {
+				guildIdToLocale.put(Long.parseLong(guildId), locales.getProperty(guildId));
+			}
+		} catch (IOException | NumberFormatException e) {
+			log.warn("Guild locales are not loaded", e);
+		}
+	}
+
+	public Optional<String> getLocale(long guildId) {
+		return Optional.ofNullable(guildIdToLocale.get(guildId));
+	}
+
+	/**
+	 * Sets guild locale and saves all the locales
+	 */
+	public synchronized void setLocale(long guildId, String localeName) {
+		guildIdToLocale.put(guildId, localeName);
+		if (guildLocalesPath.isEmpty()) {
+			return;
+		}
+		Properties locales = new Properties();
+		guildIdToLocale.forEach((id, locale) -> locales.setProperty(Long.toString(id), locale));
+		Path path = Paths.get(guildLocalesPath);
+		try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			locales.store(writer, null);
+		} catch (IOException e) {
+			log.warn("Guild locales are not saved", e);
+		}
+	}
+}
@@ -1,17 +1,25 @@
 package io.github.foloke.spring.services.localization;
 
+import io.github.foloke.spring.services.BotGuildDispatcher;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.MissingResourceException;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
- * Bot messages Loclaliztion
+ * Bot messages Loclaliztion. Bundles of all supported locales are loaded and their formats are parsed on startup,
+ * lookups only read immutable maps. Messages are in the locale of the guild whose event is handled by the current
+ * thread (see {@link BotGuildDispatcher}), or in the configured locale.
  *
  * @author Марченко Дмитрий
  * @since 05.01.2024
@@ -19,33 +27,112 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public abstract class BotLocalization {
 
-	private static final Map<String, ResourceBundle> packageTolocaliztionBundleMap = new ConcurrentHashMap<>();
 	private static final String DEFAULT_LOCALE = "en";
+	private final BotGuildLocales guildLocales;
+	private Map<String, LocaleMessages> localeToMessages = Collections.emptyMap();
 
 	@Value("${locale}")
 	private String localeName;
+	/**
+	 * Locales guilds can choose, comma separated
+	 */
+	@Value("${supportedLocales}")
+	private String supportedLocales;
+
+	protected BotLocalization(BotGuildLocales guildLocales) {
+		this.guildLocales = guildLocales;
+	}
+
+	/**
+	 * Loads bundles and parses formats of every supported locale
+	 */
+	@PostConstruct
+	public void loadBundles() {
+		Map<String, LocaleMessages> messages = new HashMap<>();
+		getSupportedLocales().forEach(locale -> messages.put(locale, new LocaleMessages(locale)));
+		messages.computeIfAbsent(localeName, LocaleMessages::new);
+		localeToMessages = messages;
+	}
 
 	/**
 	 * Get message for current locale
 	 */
 	public String getMessage(String messageName) {
-		try {
-			String locale = localeName.equals(DEFAULT_LOCALE) ? "" : localeName;
-			return packageTolocaliztionBundleMap.computeIfAbsent(localeName, pkgName ->
-				 ResourceBundle.getBundle("locale." + getPackageName(), new Locale(locale))
-			).getString(messageName);
-		} catch (MissingResourceException missingResourceException) {
-			return "No message found for: \"" + messageName + "\", for locale \""
-				+ localeName + "\"";
-		}
+		return getLocaleMessages(getCurrentLocale()).getPattern(messageName);
 	}
 
 	/**
 	 * Get message for current locale with placeholder formatting
 	 */
 	public String getMessage(String messageName, Object... args) {
-		return MessageFormat.format(getMessage(messageName), args);
+		return getLocaleMessages(getCurrentLocale()).format(messageName, args);
+	}
+
+	/**
+	 * Get message for the guild locale with placeholder formatting, for code running out of the guild dispatcher
+	 */
+	public String getGuildMessage(long guildId, String messageName, Object... args) {
+		return getLocaleMessages(guildLocales.getLocale(guildId).orElse(localeName)).format(messageName, args);
+	}
+
+	/**
+	 * Locales guilds can choose
+	 */
+	public List<String> getSupportedLocales() {
+		return Arrays.stream(supportedLocales.split(","))
+			.map(String::trim)
+			.filter(locale -> !locale.isEmpty())
+			.collect(Collectors.toList());
 	}
 
 	public abstract String getPackageName();
+
+	private String getCurrentLocale() {
+		return BotGuildDispatcher.getCurrentGuildId()
+			.flatMap(guildLocales::getLocale)
+			.orElse(localeName);
+	}
+
+	private LocaleMessages getLocaleMessages(String locale) {
+		LocaleMessages messages = localeToMessages.get(locale);
+		return messages == null ? localeToMessages.get(localeName) : messages;
+	}
+
+	/**
+	 * Messages of one locale, message formats are parsed once and copied for every use (they are not thread safe)
+	 */
+	private final class LocaleMessages {
+		private final String locale;
+		private final Map<String, String> nameToPattern = new HashMap<>();
+		private final Map<String, MessageFormat> nameToFormat = new HashMap<>();
+
+		private LocaleMessages(String locale) {
+			this.locale = locale;
+			Locale bundleLocale = new Locale(locale.equals(DEFAULT_LOCALE) ? "" : locale);
+			ResourceBundle bundle = ResourceBundle.getBundle(
+				"locale." + getPackageName(),
+				bundleLocale,
+				ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_DEFAULT)
+			);
+			for (String messageName : new ArrayList<>(bundle.keySet())) {
+				String pattern = bundle.getString(messageName);
+				nameToPattern.put(messageName, pattern);
+				nameToFormat.put(messageName, new MessageFormat(pattern, bundleLocale));
+			}
+		}
+
+		private String getPattern(String messageName) {
+			String pattern = nameToPattern.get(messageName);
+			return pattern == null ? getMissingMessage(messageName) : pattern;
+		}
+
+		private String format(String messageName, Object... args) {
+			MessageFormat format = nameToFormat.get(messageName);
+			return format == null ? getMissingMessage(messageName) : ((MessageFormat) format.clone()).format(args);
+		}
+
+		private String getMissingMessage(String messageName) {
+			return "No message found for: \"" + messageName + "\", for locale \"" + locale + "\"";
+		}
+	}
 }
@@ -1,5 +1,6 @@
 package io.github.foloke.spring.services.localization;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -10,6 +11,11 @@ import org.springframework.stereotype.Component;
  */
 @Component("playerLocalization")
 public class PlayerLocalization extends BotLocalization {
+	@Autowired
+	public PlayerLocalization(BotGuildLocales guildLocales) {
+		super(guildLocales);
+	}
+
 	@Override
 	public String getPackageName() {
 		return "player";
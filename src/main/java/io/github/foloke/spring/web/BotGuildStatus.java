@@ -0,0 +1,66 @@
+package io.github.foloke.spring.web;
+
+import io.github.foloke.player.BotGuildPlayer;
+
+/**
+ * Guild player status for the operations endpoint
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotGuildStatus {
+	private final String guildId;
+	private final int shard;
+	private final String state;
+	private final int queueLength;
+	private final int queuePosition;
+	private final long lastRenderTime;
+	private final int editBacklog;
+
+	/**
+	 * Status snapshot of the player
+	 */
+	public BotGuildStatus(int shard, BotGuildPlayer player) {
+		guildId = player.getGuildId();
+		this.shard = shard;
+		state = player.getPlayState().name();
+		queueLength = player.getWholeQueueLen();
+		queuePosition = player.getPlayedQueueLen();
+		lastRenderTime = player.getLastRenderTime();
+		editBacklog = player.getEditBacklog();
+	}
+
+	public String getGuildId() {
+		return guildId;
+	}
+
+	public int getShard() {
+		return shard;
+	}
+
+	public String getState() {
+		return state;
+	}
+
+	public int getQueueLength() {
+		return queueLength;
+	}
+
+	public int getQueuePosition() {
+		return queuePosition;
+	}
+
+	/**
+	 * Last player gif render end (epoch millis), 0 if nothing was rendered
+	 */
+	public long getLastRenderTime() {
+		return lastRenderTime;
+	}
+
+	/**
+	 * Player changes not shown in the message yet
+	 */
+	public int getEditBacklog() {
+		return editBacklog;
+	}
+}
@@ -0,0 +1,69 @@
+package io.github.foloke.spring.web;
+
+import io.github.foloke.spring.metrics.BotPrometheusExporter;
+import io.github.foloke.spring.services.BotPlayersHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operations endpoints on the embedded server: Prometheus metrics and guild players status. Endpoints have no
+ * authentication, the server listens on the loopback address unless OPERATIONS_ADDRESS is set.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+@RestController
+public class BotOperationsController {
+	private final BotPrometheusExporter prometheusExporter;
+	private final BotPlayersHolder playersHolder;
+
+	@Autowired
+	public BotOperationsController(BotPrometheusExporter prometheusExporter, BotPlayersHolder playersHolder) {
+		this.prometheusExporter = prometheusExporter;
+		this.playersHolder = playersHolder;
+	}
+
+	@GetMapping(value = "/metrics", produces = BotPrometheusExporter.CONTENT_TYPE)
+	public Mono<String> getMetrics() {
+		return Mono.fromSupplier(prometheusExporter::scrape);
+	}
+
+	/**
+	 * Status of every guild player of this node
+	 */
+	@GetMapping("/guilds")
+	public Mono<List<BotGuildStatus>> getGuilds() {
+		return Mono.fromSupplier(() -> {
+			List<BotGuildStatus> statuses = new ArrayList<>();
+			playersHolder.getShardPlayers().forEach((shardIndex, players) -> players.forEach(
+				player -> statuses.add(new BotGuildStatus(shardIndex, player))
+			));
+			return statuses;
+		});
+	}
+
+	@GetMapping("/guilds/{guildId}")
+	public Mono<ResponseEntity<BotGuildStatus>> getGuild(@PathVariable String guildId) {
+		return Mono.fromSupplier(() -> findGuild(guildId)
+			.map(ResponseEntity::ok)
+			.orElseGet(() -> ResponseEntity.notFound().build())
+		);
+	}
+
+	private Optional<BotGuildStatus> findGuild(String guildId) {
+		return playersHolder.getShardPlayers().entrySet().stream()
+			.flatMap(shardPlayers -> shardPlayers.getValue().stream()
+				.filter(player -> player.getGuildId().equals(guildId))
+				.map(player -> new BotGuildStatus(shardPlayers.getKey(), player))
+			)
+			.findFirst();
+	}
+}
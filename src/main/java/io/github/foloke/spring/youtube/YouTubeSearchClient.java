@@ -0,0 +1,207 @@
+package io.github.foloke.spring.youtube;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking YT Data API search client. Requests only video ids and titles (fields mask) and parses them from the
+ * response stream without building the whole JSON tree. If the response is slower than usual (latency quantile), the
+ * same request is sent once more and the first response wins. Hedged request is sent only while the first one is
+ * pending: an error of the first request (quota, bad request) ends the search and cancels the timer, errors of the
+ * hedged one are ignored.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class YouTubeSearchClient {
+	private static final String SEARCH_PATH = "/search";
+	private static final String SEARCH_PARTS = "snippet";
+	private static final String VIDEO_TYPE = "video";
+	private static final String FIELDS_MASK = "nextPageToken,items(id/videoId,snippet/title)";
+	private static final int LATENCY_SAMPLES = 128;
+	private static final int MIN_LATENCY_SAMPLES = 16;
+	private final Logger log = LoggerFactory.getLogger(getClass().getSimpleName());
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private final WebClient webClient;
+	private final String apiKey;
+	private final double hedgeQuantile;
+	private final Duration minHedgeDelay;
+	private final long[] latencySamples = new long[LATENCY_SAMPLES];
+	private int latencySamplesCount;
+	private int nextLatencySample;
+
+	/**
+	 * @param baseUrl API url, e.g. https://www.googleapis.com/youtube/v3 (or local stub server)
+	 * @param connectTimeout connection timeout
+	 * @param readTimeout response timeout of a single request
+	 * @param hedgeQuantile latency quantile (0..1) after which hedged request is sent, 0 to disable hedging
+	 * @param minHedgeDelay hedged request is never sent earlier
+	 */
+	public YouTubeSearchClient(
+		String baseUrl,
+		String apiKey,
+		Duration connectTimeout,
+		Duration readTimeout,
+		double hedgeQuantile,
+		Duration minHedgeDelay
+	) {
+		this.apiKey = apiKey;
+		this.hedgeQuantile = hedgeQuantile;
+		this.minHedgeDelay = minHedgeDelay;
+		HttpClient httpClient = HttpClient.create()
+			.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+			.responseTimeout(readTimeout);
+		webClient = WebClient.builder()
+			.baseUrl(baseUrl)
+			.clientConnector(new ReactorClientHttpConnector(httpClient))
+			.build();
+	}
+
+	/**
+	 * Searches videos by query
+	 *
+	 * @param pageToken token of the requested page, null for the first page
+	 */
+	public Mono<YouTubeSearchPage> search(String query, long maxResults, String pageToken) {
+		Mono<YouTubeSearchPage> request = Mono.defer(() -> timedRequest(query, maxResults, pageToken));
+		if (hedgeQuantile <= 0) {
+			return request;
+		}
+		return Mono.defer(() -> Mono.firstWithSignal(
+			request,
+			Mono.delay(getHedgeDelay())
+				.doOnNext(tick -> log.info(String.format("Slow search response, hedged request sent: %s", query)))
+				.then(request)
+				.onErrorResume(throwable -> Mono.never())
+		));
+	}
+
+	private Mono<YouTubeSearchPage> timedRequest(String query, long maxResults, String pageToken) {
+		long startNanos = System.nanoTime();
+		return webClient.get()
+			.uri(uriBuilder -> uriBuilder.path(SEARCH_PATH)
+				.queryParam("part", SEARCH_PARTS)
+				.queryParam("type", VIDEO_TYPE)
+				.queryParam("maxResults", maxResults)
+				.queryParam("fields", FIELDS_MASK)
+				.queryParam("key", apiKey)
+				.queryParam("q", "{query}")
+				.queryParamIfPresent("pageToken", Optional.ofNullable(pageToken))
+				.build(query)
+			)
+			.retrieve()
+			.bodyToFlux(DataBuffer.class)
+			.as(DataBufferUtils::join)
+			.map(dataBuffer -> {
+				try (InputStream inputStream = dataBuffer.asInputStream(true)) {
+					return parsePage(inputStream);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			})
+			.doOnSuccess(videos -> addLatencySample(System.nanoTime() - startNanos));
+	}
+
+	/**
+	 * Reads nextPageToken and id.videoId, snippet.title of the items, everything else is skipped
+	 */
+	private YouTubeSearchPage parsePage(InputStream inputStream) throws IOException {
+		List<YouTubeVideo> videos = new ArrayList<>();
+		String nextPageToken = null;
+		try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return new YouTubeSearchPage(videos, null);
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = parser.getCurrentName();
+				parser.nextToken();
+				if ("items".equals(fieldName) && parser.currentToken() == JsonToken.START_ARRAY) {
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						parseVideo(parser, videos);
+					}
+				} else if ("nextPageToken".equals(fieldName) && parser.currentToken() == JsonToken.VALUE_STRING) {
+					nextPageToken = parser.getText();
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		return new YouTubeSearchPage(videos, nextPageToken);
+	}
+
+	private static void parseVideo(JsonParser parser, List<YouTubeVideo> videos) throws IOException {
+		String videoId = null;
+		String title = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.getCurrentName();
+			parser.nextToken();
+			if ("id".equals(fieldName) && parser.currentToken() == JsonToken.START_OBJECT) {
+				videoId = readStringField(parser, "videoId");
+			} else if ("snippet".equals(fieldName) && parser.currentToken() == JsonToken.START_OBJECT) {
+				title = readStringField(parser, "title");
+			} else {
+				parser.skipChildren();
+			}
+		}
+		if (videoId != null) {
+			videos.add(new YouTubeVideo(videoId, title == null ? "" : title));
+		}
+	}
+
+	/**
+	 * Reads one string field of the current object, parser is left at the object end
+	 */
+	private static String readStringField(JsonParser parser, String name) throws IOException {
+		String value = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.getCurrentName();
+			parser.nextToken();
+			if (name.equals(fieldName) && parser.currentToken() == JsonToken.VALUE_STRING) {
+				value = parser.getText();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return value;
+	}
+
+	private synchronized void addLatencySample(long latencyNanos) {
+		latencySamples[nextLatencySample] = latencyNanos;
+		nextLatencySample = (nextLatencySample + 1) % LATENCY_SAMPLES;
+		latencySamplesCount = Math.min(latencySamplesCount + 1, LATENCY_SAMPLES);
+	}
+
+	/**
+	 * Latency quantile of the recent requests, but not less than min hedge delay. Min delay is used until there are
+	 * enough samples.
+	 */
+	synchronized Duration getHedgeDelay() {
+		if (latencySamplesCount < MIN_LATENCY_SAMPLES) {
+			return minHedgeDelay;
+		}
+		long[] sortedSamples = Arrays.copyOf(latencySamples, latencySamplesCount);
+		Arrays.sort(sortedSamples);
+		int quantileIndex = Math.min(latencySamplesCount - 1, (int) (hedgeQuantile * latencySamplesCount));
+		Duration quantileDelay = Duration.ofNanos(sortedSamples[quantileIndex]);
+		return quantileDelay.compareTo(minHedgeDelay) > 0 ? quantileDelay : minHedgeDelay;
+	}
+}
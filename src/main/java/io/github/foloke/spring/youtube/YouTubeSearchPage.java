@@ -0,0 +1,32 @@
+package io.github.foloke.spring.youtube;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of YT search results
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class YouTubeSearchPage {
+	private final List<YouTubeVideo> videos;
+	private final String nextPageToken;
+
+	/**
+	 * @param nextPageToken token of the next page, null for the last page
+	 */
+	public YouTubeSearchPage(List<YouTubeVideo> videos, String nextPageToken) {
+		this.videos = new ArrayList<>(videos);
+		this.nextPageToken = nextPageToken;
+	}
+
+	public List<YouTubeVideo> getVideos() {
+		return new ArrayList<>(videos);
+	}
+
+	public Optional<String> getNextPageToken() {
+		return Optional.ofNullable(nextPageToken);
+	}
+}
@@ -1,67 +1,240 @@
 package io.github.foloke.spring.youtube;
 
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
-import com.google.api.services.youtube.YouTube;
-import com.google.api.services.youtube.YouTube.Builder;
-import com.google.api.services.youtube.YouTube.Search;
-import com.google.api.services.youtube.YouTubeRequestInitializer;
-import com.google.api.services.youtube.model.SearchListResponse;
-import com.google.api.services.youtube.model.SearchResult;
+import io.github.foloke.spring.services.BotTitleIndex;
 import io.github.foloke.spring.services.localization.BotLocalization;
+import io.github.foloke.utils.BotLoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * YT client holder
+ * YT client holder. Search results are cached by normalized query, concurrent identical queries send one request.
  *
  * @author Марченко Дмитрий
  * @since 09.03.2024
  */
 @Service
 public class YouTubeService {
-	private static final long PAGE_RESULTS = 10L;
-	private static final String SEARCH_PARAMS = "id,snippet";
-	private static final String VIDEO_TYPE = "video";
-	private static final String APPLICATION_NAME = "HueBot";
+	public static final long PAGE_RESULTS = 10L;
+	private static final String QUERY_SPACES_REGEX = "\\s+";
+	private static final String BASE_YT_VIDEO_URL = "https://www.youtube.com/watch?v=";
+	private static final String PAGE_KEY_SEPARATOR = "#";
+	private static final int SEARCH_CACHE_FILE_VERSION = 2;
+	private final Logger log = LoggerFactory.getLogger(getClass().getSimpleName());
 	private final BotLocalization playerLocalization;
+	private final BotTitleIndex titleIndex;
 	@Value("${ytApiKey}")
 	private String ytApiKey;
-	private YouTube youTube;
+	@Value("${ytApiUrl}")
+	private String ytApiUrl;
+	@Value("${ytConnectTimeoutMillis}")
+	private long ytConnectTimeoutMillis;
+	@Value("${ytReadTimeoutMillis}")
+	private long ytReadTimeoutMillis;
+	/**
+	 * Latency quantile after which the same search is sent once more, 0 to disable
+	 */
+	@Value("${ytHedgeQuantile}")
+	private double ytHedgeQuantile;
+	@Value("${ytHedgeMinDelayMillis}")
+	private long ytHedgeMinDelayMillis;
+	@Value("${searchCacheSize}")
+	private int searchCacheSize;
+	@Value("${searchCacheTtlMinutes}")
+	private long searchCacheTtlMinutes;
+	/**
+	 * File to keep search cache between restarts, empty to keep cache only in memory
+	 */
+	@Value("${searchCachePath}")
+	private String searchCachePath;
+	private YouTubeSearchClient searchClient;
+	private BotLoadingCache<String, YouTubeSearchPage> searchCache;
 
 	@Autowired
-	private YouTubeService(BotLocalization playerLocalization) {
+	private YouTubeService(BotLocalization playerLocalization, BotTitleIndex titleIndex) {
 		this.playerLocalization = playerLocalization;
+		this.titleIndex = titleIndex;
+	}
+
+	/**
+	 * Creates search cache and restores saved results
+	 */
+	@PostConstruct
+	public void initSearchCache() {
+		searchCache = new BotLoadingCache<>(
+			searchCacheSize,
+			searchCacheTtlMinutes,
+			TimeUnit.MINUTES,
+			Objects::nonNull
+		);
+		if (!searchCachePath.isEmpty()) {
+			loadSearchCache(Paths.get(searchCachePath));
+		}
 	}
 
 	/**
-	 * Searches YT videos by passed query
+	 * Searches page of YT videos by passed query without blocking, cached page is returned if present. The next page
+	 * is loaded in background, so paging forward is answered from cache.
+	 *
+	 * @param pageIndex page number starting from 0, pages are cached per query
+	 * @throws NoApiKeyException if API key is not specified
 	 */
-	public List<SearchResult> serachForVideo(String searchQueryString) throws IOException {
-		Search.List searchQuery = getClient().search().list(SEARCH_PARAMS);
-		searchQuery.setMaxResults(PAGE_RESULTS);
-		searchQuery.setType(VIDEO_TYPE);
-		searchQuery.setQ(searchQueryString);
-		SearchListResponse searchResponse = searchQuery.execute();
-		return searchResponse.getItems();
+	public CompletableFuture<YouTubeSearchPage> searchPage(String searchQueryString, int pageIndex) {
+		YouTubeSearchClient client = getClient();
+		String query = normalizeQuery(searchQueryString);
+		CompletableFuture<YouTubeSearchPage> page = loadPage(client, query, pageIndex);
+		page.thenAccept(loadedPage -> loadedPage.getNextPageToken()
+			.ifPresent(nextPageToken -> loadPage(client, query, pageIndex + 1))
+		);
+		return page;
 	}
 
+	/**
+	 * Page token is taken from the previous page (cached or loaded the same way)
+	 */
+	private CompletableFuture<YouTubeSearchPage> loadPage(YouTubeSearchClient client, String query, int pageIndex) {
+		return searchCache.get(query + PAGE_KEY_SEPARATOR + pageIndex, key -> {
+			CompletableFuture<Optional<String>> pageToken = pageIndex == 0
+				? CompletableFuture.completedFuture(Optional.empty())
+				: loadPage(client, query, pageIndex - 1).thenApply(YouTubeSearchPage::getNextPageToken);
+			return pageToken.thenCompose(token -> {
+				if (pageIndex > 0 && !token.isPresent()) {
+					return CompletableFuture.completedFuture(new YouTubeSearchPage(Collections.emptyList(), null));
+				}
+				log.info(String.format("Searching: %s, page %d", query, pageIndex));
+				return client.search(query, PAGE_RESULTS, token.orElse(null))
+					.doOnNext(loadedPage -> indexTitles(loadedPage.getVideos()))
+					.toFuture();
+			});
+		});
+	}
+
+	private void indexTitles(List<YouTubeVideo> videos) {
+		videos.forEach(video -> titleIndex.add(video.getTitle(), BASE_YT_VIDEO_URL + video.getVideoId()));
+	}
+
+	/**
+	 * Queries that differ only in case and spaces give the same results
+	 */
+	static String normalizeQuery(String searchQueryString) {
+		return searchQueryString.trim().replaceAll(QUERY_SPACES_REGEX, " ").toLowerCase(Locale.ROOT);
+	}
 
-	private YouTube getClient() {
-		if (youTube == null) {
+	private synchronized YouTubeSearchClient getClient() {
+		if (searchClient == null) {
 			if (ytApiKey.isEmpty()) {
 				throw new NoApiKeyException(playerLocalization.getMessage("no_yt_api_key"));
 			}
-			youTube = new Builder(new NetHttpTransport(), new JacksonFactory(), request -> { })
-				.setApplicationName(APPLICATION_NAME)
-				.setYouTubeRequestInitializer(new YouTubeRequestInitializer(ytApiKey))
-				.build();
+			searchClient = new YouTubeSearchClient(
+				ytApiUrl,
+				ytApiKey,
+				Duration.ofMillis(ytConnectTimeoutMillis),
+				Duration.ofMillis(ytReadTimeoutMillis),
+				ytHedgeQuantile,
+				Duration.ofMillis(ytHedgeMinDelayMillis)
+			);
 		}
-		return youTube;
+		return searchClient;
 	}
 
+	/**
+	 * Restored entries are aged by the time passed since the save
+	 */
+	private void loadSearchCache(Path path) {
+		if (!Files.exists(path)) {
+			return;
+		}
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (input.readInt() != SEARCH_CACHE_FILE_VERSION) {
+				log.warn("Unknown search cache file version, skipped");
+				return;
+			}
+			long ageMillis = Math.max(0, System.currentTimeMillis() - input.readLong());
+			int entriesCount = input.readInt();
+			for (int i = 0; i < entriesCount; i++) {
+				String pageKey = input.readUTF();
+				String nextPageToken = input.readBoolean() ? input.readUTF() : null;
+				int videosCount = input.readInt();
+				List<YouTubeVideo> videos = new ArrayList<>(videosCount);
+				for (int j = 0; j < videosCount; j++) {
+					videos.add(new YouTubeVideo(input.readUTF(), input.readUTF()));
+				}
+				searchCache.put(pageKey, new YouTubeSearchPage(videos, nextPageToken), ageMillis, TimeUnit.MILLISECONDS);
+				indexTitles(videos);
+			}
+			log.info(String.format("Search cache restored: %d pages", entriesCount));
+		} catch (IOException e) {
+			log.error("Search cache restore error", e);
+		}
+	}
+
+	/**
+	 * Saves not expired search results (called by spring on context close)
+	 */
+	@PreDestroy
+	public void saveSearchCache() {
+		if (searchCachePath.isEmpty()) {
+			return;
+		}
+		Path path = Paths.get(searchCachePath);
+		Path tempPath = Paths.get(searchCachePath + ".tmp");
+		Map<String, YouTubeSearchPage> snapshot = searchCache.snapshot();
+		try {
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(tempPath))
+			)) {
+				output.writeInt(SEARCH_CACHE_FILE_VERSION);
+				output.writeLong(System.currentTimeMillis());
+				output.writeInt(snapshot.size());
+				for (Map.Entry<String, YouTubeSearchPage> entry : snapshot.entrySet()) {
+					Optional<String> nextPageToken = entry.getValue().getNextPageToken();
+					List<YouTubeVideo> videos = entry.getValue().getVideos();
+					output.writeUTF(entry.getKey());
+					output.writeBoolean(nextPageToken.isPresent());
+					if (nextPageToken.isPresent()) {
+						output.writeUTF(nextPageToken.get());
+					}
+					output.writeInt(videos.size());
+					for (YouTubeVideo video : videos) {
+						output.writeUTF(video.getVideoId());
+						output.writeUTF(video.getTitle());
+					}
+				}
+			}
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.error("Search cache save error", e);
+		}
+	}
+
+	public BotLoadingCache<String, YouTubeSearchPage> getSearchCache() {
+		return searchCache;
+	}
 }
@@ -0,0 +1,25 @@
+package io.github.foloke.spring.youtube;
+
+/**
+ * Found YT video, only fields used by the bot
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class YouTubeVideo {
+	private final String videoId;
+	private final String title;
+
+	public YouTubeVideo(String videoId, String title) {
+		this.videoId = videoId;
+		this.title = title;
+	}
+
+	public String getVideoId() {
+		return videoId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+}
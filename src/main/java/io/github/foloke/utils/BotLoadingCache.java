@@ -0,0 +1,193 @@
+package io.github.foloke.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded LRU cache with entries TTL. Concurrent loads of the same key are collapsed into one (single-flight):
+ * the first caller runs the loader, others get the same result.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotLoadingCache<K, V> {
+	private static final float LOAD_FACTOR = 0.75f;
+	private final long ttlNanos;
+	private final Predicate<V> cacheablePredicate;
+	private final Map<K, CacheEntry<V>> entries;
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+
+	/**
+	 * @param maxSize max entries count, least recently used entry is evicted on overflow
+	 * @param ttl entry time to live
+	 * @param ttlUnit ttl time unit
+	 * @param cacheablePredicate loaded values that don't match are returned to callers but not cached
+	 */
+	public BotLoadingCache(int maxSize, long ttl, TimeUnit ttlUnit, Predicate<V> cacheablePredicate) {
+		ttlNanos = ttlUnit.toNanos(ttl);
+		this.cacheablePredicate = cacheablePredicate;
+		entries = new LinkedHashMap<>(16, LOAD_FACTOR, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns cached value or loads it. If the same key is loading already, waits for that load.
+	 *
+	 * @param loader called only on cache miss, when there is no load in flight for the key
+	 */
+	public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+		Optional<V> cachedValue = getIfPresent(key);
+		if (cachedValue.isPresent()) {
+			hits.increment();
+			return CompletableFuture.completedFuture(cachedValue.get());
+		}
+		CompletableFuture<V> load = new CompletableFuture<>();
+		CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(key, load);
+		if (inFlightLoad != null) {
+			coalesced.increment();
+			return inFlightLoad.copy();
+		}
+		misses.increment();
+		try {
+			loader.apply(key).whenComplete((value, throwable) -> {
+				if (throwable == null && cacheablePredicate.test(value)) {
+					put(key, value);
+				}
+				inFlightLoads.remove(key, load);
+				if (throwable == null) {
+					load.complete(value);
+				} else {
+					load.completeExceptionally(throwable);
+				}
+			});
+		} catch (RuntimeException e) {
+			inFlightLoads.remove(key, load);
+			load.completeExceptionally(e);
+		}
+		return load.copy();
+	}
+
+	/**
+	 * Get not expired value without loading
+	 */
+	public Optional<V> getIfPresent(K key) {
+		synchronized (entries) {
+			CacheEntry<V> entry = entries.get(key);
+			if (entry == null) {
+				return Optional.empty();
+			}
+			if (System.nanoTime() - entry.createdNanos > ttlNanos) {
+				entries.remove(key);
+				return Optional.empty();
+			}
+			return Optional.of(entry.value);
+		}
+	}
+
+	/**
+	 * Cached value or the load in flight, nothing is loaded
+	 */
+	public Optional<CompletableFuture<V>> getIfPresentOrLoading(K key) {
+		Optional<CompletableFuture<V>> cachedValue = getIfPresent(key).map(CompletableFuture::completedFuture);
+		if (cachedValue.isPresent()) {
+			return cachedValue;
+		}
+		return Optional.ofNullable(inFlightLoads.get(key)).map(CompletableFuture::copy);
+	}
+
+	/**
+	 * Put value, replaces existing one and resets its ttl
+	 */
+	public void put(K key, V value) {
+		put(key, value, 0, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Put value that was loaded some time ago (e.g. restored from disk), it expires earlier accordingly
+	 */
+	public void put(K key, V value, long age, TimeUnit ageUnit) {
+		synchronized (entries) {
+			entries.put(key, new CacheEntry<>(value, System.nanoTime() - ageUnit.toNanos(age)));
+		}
+	}
+
+	/**
+	 * Copy of not expired values, from least to most recently used
+	 */
+	public Map<K, V> snapshot() {
+		Map<K, V> snapshot = new LinkedHashMap<>();
+		long now = System.nanoTime();
+		synchronized (entries) {
+			entries.forEach((key, entry) -> {
+				if (now - entry.createdNanos <= ttlNanos) {
+					snapshot.put(key, entry.value);
+				}
+			});
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Remove value from cache
+	 */
+	public void invalidate(K key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Loads running now (coalesced requests are not counted)
+	 */
+	public int getInFlightCount() {
+		return inFlightLoads.size();
+	}
+
+	/**
+	 * Requests that were joined to a load already in flight
+	 */
+	public long getCoalescedCount() {
+		return coalesced.sum();
+	}
+
+	private static final class CacheEntry<V> {
+		private final V value;
+		private final long createdNanos;
+
+		private CacheEntry(V value, long createdNanos) {
+			this.value = value;
+			this.createdNanos = createdNanos;
+		}
+	}
+}
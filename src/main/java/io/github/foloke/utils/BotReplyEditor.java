@@ -0,0 +1,113 @@
+package io.github.foloke.utils;
+
+import discord4j.core.event.domain.interaction.DeferrableInteractionEvent;
+import discord4j.core.spec.EmbedCreateSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Edits deferred interaction reply without blocking. Edits are applied in the order they were requested, progress
+ * edits are throttled to keep away from rate limits. Progress is not shown any more after the final edit is
+ * requested or after an edit failed, and nothing is edited once the interaction token expires (15 minutes).
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotReplyEditor {
+	private static final long DEFAULT_PROGRESS_INTERVAL_MS = 1000;
+	/**
+	 * Interaction token is valid for 15 minutes, a minute is left for the edit itself
+	 */
+	private static final long EDIT_WINDOW_MS = Duration.ofMinutes(14).toMillis();
+	private final Logger log = LoggerFactory.getLogger(getClass().getName());
+	private final DeferrableInteractionEvent event;
+	private final long progressIntervalMillis;
+	private final long editDeadlineMillis = System.currentTimeMillis() + EDIT_WINDOW_MS;
+	private CompletableFuture<Boolean> lastEdit = CompletableFuture.completedFuture(true);
+	private long lastProgressEditMillis;
+	private boolean finished;
+	private volatile boolean editFailed;
+
+	/**
+	 * Creates editor with default progress edits interval
+	 */
+	public BotReplyEditor(DeferrableInteractionEvent event) {
+		this(event, DEFAULT_PROGRESS_INTERVAL_MS);
+	}
+
+	/**
+	 * @param progressIntervalMillis min interval between progress edits
+	 */
+	public BotReplyEditor(DeferrableInteractionEvent event, long progressIntervalMillis) {
+		this.event = event;
+		this.progressIntervalMillis = progressIntervalMillis;
+	}
+
+	/**
+	 * Edits reply with intermediate state, skipped if previous progress edit was too recent
+	 */
+	public void editProgress(String content) {
+		requestProgressEdit(() -> event.editReply(content));
+	}
+
+	/**
+	 * Replaces reply embeds with intermediate state, skipped if previous progress edit was too recent
+	 */
+	public void editProgressEmbed(EmbedCreateSpec embed) {
+		requestProgressEdit(() -> event.editReply().withEmbeds(embed));
+	}
+
+	private synchronized void requestProgressEdit(Supplier<Mono<?>> editSupplier) {
+		long now = System.currentTimeMillis();
+		if (!finished && !editFailed && now - lastProgressEditMillis >= progressIntervalMillis) {
+			lastProgressEditMillis = now;
+			enqueue(editSupplier);
+		}
+	}
+
+	/**
+	 * Edits reply with the final state after all the previous edits
+	 *
+	 * @return future of this edit, completes with false if the reply was not edited
+	 */
+	public CompletableFuture<Boolean> edit(String content) {
+		return requestFinalEdit(() -> event.editReply(content));
+	}
+
+	/**
+	 * Replaces reply embeds with the final state after all the previous edits
+	 *
+	 * @return future of this edit, completes with false if the reply was not edited
+	 */
+	public CompletableFuture<Boolean> editEmbed(EmbedCreateSpec embed) {
+		return requestFinalEdit(() -> event.editReply().withEmbeds(embed));
+	}
+
+	private synchronized CompletableFuture<Boolean> requestFinalEdit(Supplier<Mono<?>> editSupplier) {
+		finished = true;
+		return enqueue(editSupplier);
+	}
+
+	private CompletableFuture<Boolean> enqueue(Supplier<Mono<?>> editSupplier) {
+		lastEdit = lastEdit.thenCompose(previous -> {
+			if (System.currentTimeMillis() > editDeadlineMillis) {
+				log.warn("Reply is not edited, interaction token expired");
+				return CompletableFuture.completedFuture(false);
+			}
+			return editSupplier.get()
+				.then(Mono.just(true))
+				.toFuture()
+				.exceptionally(throwable -> {
+					editFailed = true;
+					log.error("Reply edit error", throwable);
+					return false;
+				});
+		});
+		return lastEdit;
+	}
+}
@@ -0,0 +1,63 @@
+package io.github.foloke.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Splits players into teams with sizes equal within one and close rating sums. Players are taken from the strongest
+ * and each goes to the weakest team that still has a free place, so it takes O(n log n) for any channel size.
+ *
+ * @author Марченко Дмитрий
+ * @since 19.10.2026
+ */
+public final class BotTeamPartitioner {
+	private BotTeamPartitioner() {
+	}
+
+	/**
+	 * Teams are returned in creation order, the first player of a team is its strongest one. Players with equal
+	 * ratings keep the passed order (shuffle them for random teams).
+	 *
+	 * @param teamsCount requested teams count, limited by players count
+	 */
+	public static <T> List<List<T>> partition(List<T> players, ToDoubleFunction<T> rating, int teamsCount) {
+		int count = Math.max(1, Math.min(teamsCount, players.size()));
+		int minTeamSize = players.size() / count;
+		int biggerTeamsCount = players.size() % count;
+		List<Team<T>> teams = IntStream.range(0, count)
+			.mapToObj(index -> new Team<T>(index, index < biggerTeamsCount ? minTeamSize + 1 : minTeamSize))
+			.collect(Collectors.toList());
+		PriorityQueue<Team<T>> weakestTeams = new PriorityQueue<>(
+			Comparator.<Team<T>>comparingDouble(team -> team.ratingSum).thenComparingInt(team -> team.index)
+		);
+		weakestTeams.addAll(teams);
+		players.stream()
+			.sorted(Comparator.comparingDouble(rating).reversed())
+			.forEach(player -> {
+				Team<T> team = weakestTeams.poll();
+				team.players.add(player);
+				team.ratingSum += rating.applyAsDouble(player);
+				if (team.players.size() < team.size) {
+					weakestTeams.add(team);
+				}
+			});
+		return teams.stream().map(team -> team.players).collect(Collectors.toList());
+	}
+
+	private static final class Team<T> {
+		private final int index;
+		private final int size;
+		private final List<T> players = new ArrayList<>();
+		private double ratingSum;
+
+		private Team(int index, int size) {
+			this.index = index;
+			this.size = size;
+		}
+	}
+}
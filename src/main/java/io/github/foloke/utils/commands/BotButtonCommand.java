@@ -1,7 +1,6 @@
 package io.github.foloke.utils.commands;
 
 import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
-import discord4j.core.spec.InteractionApplicationCommandCallbackSpec;
 import io.github.foloke.player.BotGuildPlayer;
 import org.springframework.stereotype.Component;
 
@@ -23,11 +22,17 @@ public interface BotButtonCommand extends BotCommand<ButtonInteractionEvent> {
 	}
 
 	/**
-	 * Execute with reply
+	 * Execute with reply, interaction is already acknowledged with deferred message update
 	 */
 	default void execute(ButtonInteractionEvent event, BotGuildPlayer player) {
 		execute(player);
-		event.edit(InteractionApplicationCommandCallbackSpec.builder().build()).block();
+	}
+
+	/**
+	 * User is connected to the voice channel before execute, commands without player get null instead of the player
+	 */
+	default boolean isPlayerRequired() {
+		return true;
 	}
 
 	String getButtonText();
@@ -1,9 +1,12 @@
 package io.github.foloke.utils.commands;
 
+import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,4 +27,11 @@ public interface BotChatCommand extends BotCommand<ChatInputInteractionEvent> {
 	 * Execute command
 	 */
 	void execute(ChatInputInteractionEvent event);
+
+	/**
+	 * Suggestions for the focused option with autocomplete, must be answered without network calls
+	 */
+	default List<ApplicationCommandOptionChoiceData> getSuggestions(ChatInputAutoCompleteEvent event) {
+		return Collections.emptyList();
+	}
 }